@@ -0,0 +1,99 @@
+package com.kansus.kmlp.benchmark;
+
+import com.kansus.kmlp.activation.ActivationFunction;
+import com.kansus.kmlp.activation.ActivationFunctions;
+import com.kansus.kmlp.core.MultilayerPerceptron;
+import com.kansus.kmlp.core.Precision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the exact and the approximated hyperbolic tangent, alone over the summed inputs of
+ * a layer and in the forward phase and the training step of networks whose layers all use them.
+ * The summed inputs are spread like the ones of the networks we train, mostly between -1 and 1.
+ * The scores are in activations per second for {@link #calculateOutput()} and in samples per
+ * second for the others.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ActivationBenchmark {
+
+    private static final int SUMMED_INPUTS_COUNT = 1024;
+
+    private static final int PATTERNS_COUNT = 256;
+
+    @Param({Shapes.STROKES, Shapes.PIXELS})
+    public String shape;
+
+    @Param({"default", "fast_tanh"})
+    public String activationFunctionName;
+
+    private ActivationFunction activationFunction;
+
+    private double[] summedInputs;
+
+    private MultilayerPerceptron network;
+
+    private double[][] inputs;
+
+    private double[][] expectedOutputs;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int[] layerSizes = Shapes.parse(shape);
+        activationFunction = ActivationFunctions.forName(activationFunctionName);
+
+        Random random = new Random(42);
+        summedInputs = new double[SUMMED_INPUTS_COUNT];
+
+        for (int i = 0; i < summedInputs.length; i++) {
+            summedInputs[i] = random.nextGaussian() * 0.5;
+        }
+
+        network = new MultilayerPerceptron(layerSizes[0], layerSizes[1], layerSizes[2], Precision.DOUBLE,
+                activationFunction, activationFunction);
+        inputs = Shapes.createInputs(PATTERNS_COUNT, layerSizes[0]);
+        expectedOutputs = Shapes.createExpectedOutputs(PATTERNS_COUNT, layerSizes[layerSizes.length - 1]);
+
+        network.setMaxEpochs(1);
+        network.addPattern("pattern", inputs[0], expectedOutputs[0]);
+        network.train();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SUMMED_INPUTS_COUNT)
+    public double calculateOutput() {
+        double sum = 0;
+
+        for (double summedInput : summedInputs) {
+            sum += activationFunction.calculateOutput(summedInput);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public double[] evaluate() {
+        next = (next + 1) % PATTERNS_COUNT;
+        return network.evaluate(inputs[next]);
+    }
+
+    @Benchmark
+    public double trainingStep() {
+        next = (next + 1) % PATTERNS_COUNT;
+        return network.trainPattern(inputs[next], expectedOutputs[next]);
+    }
+}
@@ -0,0 +1,64 @@
+package com.kansus.kmlp.benchmark;
+
+import com.kansus.kmlp.core.MultilayerPerceptron;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the garbage produced by the training and evaluation hot paths of the strokes network
+ * (32x64x37) once the network is warmed up. Run with the gc profiler, which is enabled in the build,
+ * the gc.alloc.rate.norm of both benchmarks is the amount of bytes allocated per pattern and is
+ * expected to be zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AllocationBenchmark {
+
+    private static final int PATTERNS_COUNT = 256;
+
+    private MultilayerPerceptron network;
+
+    private double[][] data;
+
+    private double[][] expectedOutputs;
+
+    private double[] output;
+
+    @Setup
+    public void setUp() {
+        network = Shapes.createNetwork(Shapes.STROKES);
+        data = Shapes.createInputs(PATTERNS_COUNT, 32);
+        expectedOutputs = Shapes.createExpectedOutputs(PATTERNS_COUNT, 37);
+        output = new double[37];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATTERNS_COUNT)
+    public double trainingEpoch() {
+        double meanSquaredErrorSum = 0;
+
+        for (int i = 0; i < PATTERNS_COUNT; i++) {
+            meanSquaredErrorSum += network.trainPattern(data[i], expectedOutputs[i]);
+        }
+
+        return meanSquaredErrorSum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATTERNS_COUNT)
+    public void evaluateIntoBuffer(Blackhole blackhole) {
+        for (int i = 0; i < PATTERNS_COUNT; i++) {
+            blackhole.consume(network.evaluate(data[i], output));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.kansus.kmlp.benchmark;
+
+import com.kansus.kmlp.core.MultilayerPerceptron;
+import com.kansus.kmlp.model.BinaryInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the forward phase and of a single training step with the same inputs given as
+ * arrays of doubles and packed as bits, with the low level of the normalized pixels of the
+ * projects that use -1 and of the ones that use 0. The scores are in samples per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BinaryInputBenchmark {
+
+    private static final int PATTERNS_COUNT = 256;
+
+    @Param({Shapes.PIXELS, "576x256x92"})
+    public String shape;
+
+    @Param({"-1", "0"})
+    public double lowValue;
+
+    private MultilayerPerceptron network;
+
+    private double[][] inputs;
+
+    private BinaryInput[] binaryInputs;
+
+    private double[][] expectedOutputs;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int[] layerSizes = Shapes.parse(shape);
+
+        network = Shapes.createNetwork(shape);
+        inputs = Shapes.createInputs(PATTERNS_COUNT, layerSizes[0]);
+        binaryInputs = new BinaryInput[PATTERNS_COUNT];
+        expectedOutputs = Shapes.createExpectedOutputs(PATTERNS_COUNT, layerSizes[layerSizes.length - 1]);
+
+        for (int i = 0; i < PATTERNS_COUNT; i++) {
+            for (int j = 0; j < inputs[i].length; j++) {
+                if (inputs[i][j] < 0) {
+                    inputs[i][j] = lowValue;
+                }
+            }
+
+            binaryInputs[i] = BinaryInput.pack(inputs[i]);
+        }
+    }
+
+    @Benchmark
+    public double[] evaluate() {
+        next = (next + 1) % PATTERNS_COUNT;
+        return network.evaluate(inputs[next]);
+    }
+
+    @Benchmark
+    public double[] evaluatePacked() {
+        next = (next + 1) % PATTERNS_COUNT;
+        return network.evaluate(binaryInputs[next]);
+    }
+
+    @Benchmark
+    public double trainingStep() {
+        next = (next + 1) % PATTERNS_COUNT;
+        return network.trainPattern(inputs[next], expectedOutputs[next]);
+    }
+
+    @Benchmark
+    public double trainingStepPacked() {
+        next = (next + 1) % PATTERNS_COUNT;
+        return network.trainPattern(binaryInputs[next], expectedOutputs[next]);
+    }
+}
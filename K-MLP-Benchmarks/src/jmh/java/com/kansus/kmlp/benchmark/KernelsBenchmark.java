@@ -0,0 +1,158 @@
+package com.kansus.kmlp.benchmark;
+
+import com.kansus.kmlp.math.Kernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time taken by each kernel over a whole layer of the shapes of the networks we train, with the
+ * scalar and the vector kernels. The dot products and the weight updates run once per neuron of the
+ * hidden layer, the weighted error sums of the hidden layer once per neuron of the output layer,
+ * and the cosine similarity once over two inputs. The vector kernels need the benchmarks to run on
+ * Java 16 or later, with -PvectorJdk=&lt;path&gt;. The scores are in microseconds per layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KernelsBenchmark {
+
+    @Param({Shapes.STROKES, Shapes.PIXELS, "576x256x92"})
+    public String shape;
+
+    @Param({"scalar", "vector"})
+    public String kernelsName;
+
+    private Kernels kernels;
+
+    private int inputsCount;
+
+    private int hiddenCount;
+
+    private int outputsCount;
+
+    private double[] input;
+
+    private double[] otherInput;
+
+    private double[] hiddenWeights;
+
+    private double[] outputWeights;
+
+    private double[] outputErrors;
+
+    private double[] weightedErrorSums;
+
+    private float[] floatInput;
+
+    private float[] floatHiddenWeights;
+
+    @Setup
+    public void setUp() {
+        if (kernelsName.equals(Kernels.scalar().getName())) {
+            kernels = Kernels.scalar();
+        } else if (kernelsName.equals(Kernels.get().getName())) {
+            kernels = Kernels.get();
+        } else {
+            throw new IllegalStateException("The " + kernelsName + " kernels are not available in this JVM.");
+        }
+
+        int[] layerSizes = Shapes.parse(shape);
+        inputsCount = layerSizes[0];
+        hiddenCount = layerSizes[1];
+        outputsCount = layerSizes[2];
+
+        Random random = new Random(42);
+        input = Shapes.createInputs(1, inputsCount)[0];
+        otherInput = Shapes.createInputs(2, inputsCount)[1];
+        hiddenWeights = randomArray(random, hiddenCount * inputsCount);
+        outputWeights = randomArray(random, outputsCount * hiddenCount);
+        outputErrors = randomArray(random, outputsCount);
+        weightedErrorSums = new double[hiddenCount];
+        floatInput = new float[inputsCount];
+        floatHiddenWeights = new float[hiddenWeights.length];
+
+        for (int i = 0; i < inputsCount; i++) {
+            floatInput[i] = (float) input[i];
+        }
+
+        for (int i = 0; i < hiddenWeights.length; i++) {
+            floatHiddenWeights[i] = (float) hiddenWeights[i];
+        }
+    }
+
+    private static double[] randomArray(Random random, int length) {
+        double[] array = new double[length];
+
+        for (int i = 0; i < length; i++) {
+            array[i] = random.nextDouble() - 0.5;
+        }
+
+        return array;
+    }
+
+    @Benchmark
+    public double dot() {
+        double sum = 0;
+
+        for (int j = 0; j < hiddenCount; j++) {
+            sum += kernels.dot(input, 0, hiddenWeights, j * inputsCount, inputsCount);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public float floatDot() {
+        float sum = 0;
+
+        for (int j = 0; j < hiddenCount; j++) {
+            sum += kernels.dot(floatInput, 0, floatHiddenWeights, j * inputsCount, inputsCount);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public double[] weightedErrorSums() {
+        Arrays.fill(weightedErrorSums, 0);
+
+        for (int k = 0; k < outputsCount; k++) {
+            kernels.axpy(outputErrors[k], outputWeights, k * hiddenCount, weightedErrorSums, 0, hiddenCount);
+        }
+
+        return weightedErrorSums;
+    }
+
+    @Benchmark
+    public double[] axpy() {
+        for (int j = 0; j < hiddenCount; j++) {
+            kernels.axpy(1e-9, input, 0, hiddenWeights, j * inputsCount, inputsCount);
+        }
+
+        return hiddenWeights;
+    }
+
+    @Benchmark
+    public float[] floatAxpy() {
+        for (int j = 0; j < hiddenCount; j++) {
+            kernels.axpy(1e-9f, floatInput, 0, floatHiddenWeights, j * inputsCount, inputsCount);
+        }
+
+        return floatHiddenWeights;
+    }
+
+    @Benchmark
+    public double cosineSimilarity() {
+        return kernels.cosineSimilarity(input, otherInput);
+    }
+}
@@ -0,0 +1,107 @@
+package com.kansus.kmlp.benchmark;
+
+import com.kansus.kmlp.Utils;
+import com.kansus.kmlp.core.MultilayerPerceptron;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to save and load the weights of the pixels network (1024x512x92).
+ * The conversion benchmarks compare the bulk conversions of {@link Utils} against the previous
+ * implementation, which wrapped every double in its own ByteBuffer, and the file benchmarks
+ * measure a whole model file going through the disk cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ModelIoBenchmark {
+
+    private MultilayerPerceptron network;
+
+    private double[] weights;
+
+    private byte[] bytes;
+
+    private File modelFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        network = Shapes.createNetwork(Shapes.PIXELS);
+        weights = new double[1024 * 512 + 512 * 92];
+
+        Random random = new Random(42);
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = random.nextGaussian();
+        }
+
+        bytes = Utils.toByteArray(weights);
+        modelFile = File.createTempFile("kmlp-benchmark", ".mlp");
+        network.saveWeightsToFile(modelFile);
+    }
+
+    @TearDown
+    public void tearDown() {
+        modelFile.delete();
+    }
+
+    @Benchmark
+    public byte[] perElementToByteArray() {
+        int times = Double.SIZE / Byte.SIZE;
+        byte[] result = new byte[weights.length * times];
+
+        for (int i = 0; i < weights.length; i++) {
+            ByteBuffer.wrap(result, i * times, times).putDouble(weights[i]);
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public byte[] bulkToByteArray() {
+        return Utils.toByteArray(weights);
+    }
+
+    @Benchmark
+    public double[] perElementToDoubleArray() {
+        int times = Double.SIZE / Byte.SIZE;
+        double[] result = new double[bytes.length / times];
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ByteBuffer.wrap(bytes, i * times, times).getDouble();
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public double[] bulkToDoubleArray() {
+        return Utils.toDoubleArray(bytes);
+    }
+
+    @Benchmark
+    public void saveModel() {
+        network.saveWeightsToFile(modelFile);
+    }
+
+    @Benchmark
+    public void loadModel() {
+        network.loadWeightsFromFile(modelFile);
+    }
+
+    @Benchmark
+    public MultilayerPerceptron loadNetworkFromModel() throws IOException {
+        return MultilayerPerceptron.loadFromFile(modelFile);
+    }
+}
@@ -0,0 +1,78 @@
+package com.kansus.kmlp.benchmark;
+
+import com.kansus.kmlp.core.MultilayerPerceptron;
+import com.kansus.kmlp.core.Precision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the forward phase, one sample at a time and in batches, of a single training step
+ * and of a full training epoch at the shapes of the networks we train: strokes, pixels of the
+ * 32x32 images and pixels of the 24x24 images with several hidden layer sizes, in both precisions
+ * of the weights. The scores are in samples per second, and the gc profiler enabled in the build
+ * reports the allocation rate and the bytes allocated per sample.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NetworkThroughputBenchmark {
+
+    private static final int PATTERNS_COUNT = 256;
+
+    @Param({Shapes.STROKES, Shapes.PIXELS, "576x128x92", "576x256x92", "576x512x92"})
+    public String shape;
+
+    @Param({"DOUBLE", "FLOAT"})
+    public Precision precision;
+
+    private MultilayerPerceptron network;
+
+    private double[][] inputs;
+
+    private double[][] expectedOutputs;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int[] layerSizes = Shapes.parse(shape);
+
+        network = Shapes.createTrainingNetwork(shape, precision, PATTERNS_COUNT);
+        network.setMaxEpochs(1);
+        inputs = Shapes.createInputs(PATTERNS_COUNT, layerSizes[0]);
+        expectedOutputs = Shapes.createExpectedOutputs(PATTERNS_COUNT, layerSizes[layerSizes.length - 1]);
+    }
+
+    @Benchmark
+    public double[] evaluate() {
+        next = (next + 1) % PATTERNS_COUNT;
+        return network.evaluate(inputs[next]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATTERNS_COUNT)
+    public double[][] evaluateBatch() {
+        return network.evaluateBatch(inputs);
+    }
+
+    @Benchmark
+    public double trainingStep() {
+        next = (next + 1) % PATTERNS_COUNT;
+        return network.trainPattern(inputs[next], expectedOutputs[next]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATTERNS_COUNT)
+    public void trainingEpoch() {
+        network.train();
+    }
+}
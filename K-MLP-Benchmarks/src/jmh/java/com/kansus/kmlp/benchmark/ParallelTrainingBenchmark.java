@@ -0,0 +1,82 @@
+package com.kansus.kmlp.benchmark;
+
+import com.kansus.kmlp.core.MultilayerPerceptron;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one training epoch of the pixels network (1024x512x92) in the current thread, updating
+ * the weights after every pattern, against the same epoch split into mini-batches that are trained
+ * by several threads. The scores are in patterns per second, so the speedup of a threads count is
+ * its score divided by the score of {@link #backpropagationEpoch(OnlineState)}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParallelTrainingBenchmark {
+
+    private static final int PATTERNS_COUNT = 512;
+
+    @State(Scope.Benchmark)
+    public static class OnlineState {
+
+        MultilayerPerceptron network;
+
+        @Setup
+        public void setUp() {
+            network = createNetwork(1, 1);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ParallelState {
+
+        @Param({"1", "2", "4", "8", "16", "32"})
+        public int threads;
+
+        @Param({"64"})
+        public int batchSize;
+
+        MultilayerPerceptron network;
+
+        @Setup
+        public void setUp() {
+            network = createNetwork(batchSize, threads);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATTERNS_COUNT)
+    public void backpropagationEpoch(OnlineState state) {
+        state.network.train();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATTERNS_COUNT)
+    public void parallelEpoch(ParallelState state) {
+        state.network.train();
+    }
+
+    /**
+     * Creates a pixels network with random binary patterns that trains for a single epoch.
+     *
+     * @param batchSize    The batch size of the training.
+     * @param threadsCount The amount of threads of the training.
+     * @return The network.
+     */
+    private static MultilayerPerceptron createNetwork(int batchSize, int threadsCount) {
+        MultilayerPerceptron network = Shapes.createTrainingNetwork(Shapes.PIXELS, PATTERNS_COUNT);
+        network.setBatchSize(batchSize);
+        network.setThreadsCount(threadsCount);
+        network.setMaxEpochs(1);
+        return network;
+    }
+}
@@ -0,0 +1,136 @@
+package com.kansus.kmlp.benchmark;
+
+import com.kansus.kmlp.core.MultilayerPerceptron;
+import com.kansus.kmlp.core.Precision;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Creates the networks and patterns used by the benchmarks. A shape is written as the amount of
+ * neurons of the input, hidden and output layers separated by "x", like "1024x512x92".
+ */
+final class Shapes {
+
+    /**
+     * Strokes network.
+     */
+    static final String STROKES = "32x64x37";
+
+    /**
+     * Pixels network of the 32x32 images.
+     */
+    static final String PIXELS = "1024x512x92";
+
+    private Shapes() {
+    }
+
+    /**
+     * Returns the amount of neurons of each layer of the given shape.
+     *
+     * @param shape The shape of the network.
+     * @return The amount of neurons of each layer, starting with the input layer.
+     */
+    static int[] parse(String shape) {
+        String[] sizes = shape.split("x");
+        int[] layerSizes = new int[sizes.length];
+
+        for (int i = 0; i < sizes.length; i++) {
+            layerSizes[i] = Integer.parseInt(sizes[i]);
+        }
+
+        return layerSizes;
+    }
+
+    /**
+     * Creates a network with the given shape and no patterns.
+     *
+     * @param shape The shape of the network.
+     * @return The network.
+     */
+    static MultilayerPerceptron createNetwork(String shape) {
+        return createNetwork(shape, Precision.DOUBLE);
+    }
+
+    /**
+     * Creates a network with the given shape and precision and no patterns.
+     *
+     * @param shape     The shape of the network.
+     * @param precision The precision of the weights of the network.
+     * @return The network.
+     */
+    static MultilayerPerceptron createNetwork(String shape, Precision precision) {
+        int[] layerSizes = parse(shape);
+        return new MultilayerPerceptron(layerSizes[0], layerSizes[1], layerSizes[2], precision);
+    }
+
+    /**
+     * Creates random binary inputs, like the normalized pixels and strokes.
+     *
+     * @param count       The amount of inputs.
+     * @param inputsCount The length of each input.
+     * @return The inputs.
+     */
+    static double[][] createInputs(int count, int inputsCount) {
+        double[][] inputs = new double[count][inputsCount];
+        Random random = new Random(42);
+
+        for (double[] input : inputs) {
+            for (int i = 0; i < input.length; i++) {
+                input[i] = random.nextBoolean() ? 1 : -1;
+            }
+        }
+
+        return inputs;
+    }
+
+    /**
+     * Creates the expected outputs of the given amount of patterns, one class per pattern in turn.
+     *
+     * @param count        The amount of patterns.
+     * @param outputsCount The amount of outputs of the network.
+     * @return The expected outputs.
+     */
+    static double[][] createExpectedOutputs(int count, int outputsCount) {
+        double[][] expectedOutputs = new double[count][outputsCount];
+
+        for (int i = 0; i < count; i++) {
+            Arrays.fill(expectedOutputs[i], -1);
+            expectedOutputs[i][i % outputsCount] = 1;
+        }
+
+        return expectedOutputs;
+    }
+
+    /**
+     * Creates a network with the given shape and a training set of random patterns.
+     *
+     * @param shape         The shape of the network.
+     * @param patternsCount The amount of patterns of the training set.
+     * @return The network.
+     */
+    static MultilayerPerceptron createTrainingNetwork(String shape, int patternsCount) {
+        return createTrainingNetwork(shape, Precision.DOUBLE, patternsCount);
+    }
+
+    /**
+     * Creates a network with the given shape and precision and a training set of random patterns.
+     *
+     * @param shape         The shape of the network.
+     * @param precision     The precision of the weights of the network.
+     * @param patternsCount The amount of patterns of the training set.
+     * @return The network.
+     */
+    static MultilayerPerceptron createTrainingNetwork(String shape, Precision precision, int patternsCount) {
+        int[] layerSizes = parse(shape);
+        MultilayerPerceptron network = createNetwork(shape, precision);
+        double[][] inputs = createInputs(patternsCount, layerSizes[0]);
+        double[][] expectedOutputs = createExpectedOutputs(patternsCount, layerSizes[layerSizes.length - 1]);
+
+        for (int i = 0; i < patternsCount; i++) {
+            network.addPattern("pattern-" + i, inputs[i], expectedOutputs[i]);
+        }
+
+        return network;
+    }
+}
@@ -1,39 +1,178 @@
 package com.kansus.kmlp;
 
+import java.io.EOFException;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 public class Utils {
 
+	/**
+	 * The amount of values converted at a time by the channel methods.
+	 */
+	private static final int CHANNEL_CHUNK_SIZE = 65536;
+
 	public static byte[] toByteArray(double[] doubleArray) {
-		int times = Double.SIZE / Byte.SIZE;
-		byte[] bytes = new byte[doubleArray.length * times];
-		
-		for (int i = 0; i < doubleArray.length; i++) {
-			ByteBuffer.wrap(bytes, i * times, times).putDouble(doubleArray[i]);
-		}
-		
-		return bytes;
+		return toByteArray(doubleArray, ByteOrder.BIG_ENDIAN);
+	}
+
+	/**
+	 * Converts the doubles to bytes in a single bulk operation.
+	 *
+	 * @param doubleArray The doubles to be converted.
+	 * @param order       The byte order of the doubles in the bytes.
+	 * @return The bytes of the doubles.
+	 */
+	public static byte[] toByteArray(double[] doubleArray, ByteOrder order) {
+		ByteBuffer buffer = ByteBuffer.allocate(doubleArray.length * Double.BYTES).order(order);
+		buffer.asDoubleBuffer().put(doubleArray);
+		return buffer.array();
 	}
 
 	public static double[] toDoubleArray(byte[] byteArray) {
-		int times = Double.SIZE / Byte.SIZE;
-		double[] doubles = new double[byteArray.length / times];
-		
-		for (int i = 0; i < doubles.length; i++) {
-			doubles[i] = ByteBuffer.wrap(byteArray, i * times, times).getDouble();
-		}
-		
+		return toDoubleArray(byteArray, ByteOrder.BIG_ENDIAN);
+	}
+
+	/**
+	 * Converts the bytes to doubles in a single bulk operation. Trailing bytes
+	 * that do not make a whole double are ignored.
+	 *
+	 * @param byteArray The bytes to be converted.
+	 * @param order     The byte order of the doubles in the bytes.
+	 * @return The doubles.
+	 */
+	public static double[] toDoubleArray(byte[] byteArray, ByteOrder order) {
+		double[] doubles = new double[byteArray.length / Double.BYTES];
+		ByteBuffer.wrap(byteArray).order(order).asDoubleBuffer().get(doubles);
 		return doubles;
 	}
-	
+
+	/**
+	 * Writes the doubles to the channel in chunks, without converting all of
+	 * them to bytes at once.
+	 *
+	 * @param channel     The channel that receives the doubles.
+	 * @param doubleArray The doubles to be written.
+	 * @param order       The byte order of the doubles in the channel.
+	 * @throws IOException If the channel could not be written.
+	 */
+	public static void writeDoubles(WritableByteChannel channel, double[] doubleArray, ByteOrder order)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(Math.min(doubleArray.length, CHANNEL_CHUNK_SIZE) * Double.BYTES)
+				.order(order);
+
+		for (int from = 0; from < doubleArray.length; from += CHANNEL_CHUNK_SIZE) {
+			int length = Math.min(CHANNEL_CHUNK_SIZE, doubleArray.length - from);
+
+			buffer.clear();
+			buffer.asDoubleBuffer().put(doubleArray, from, length);
+			buffer.limit(length * Double.BYTES);
+
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Reads doubles from the channel in chunks until the array is filled.
+	 *
+	 * @param channel     The channel with the doubles.
+	 * @param doubleArray The array that receives the doubles.
+	 * @param order       The byte order of the doubles in the channel.
+	 * @throws IOException If the channel could not be read or ended before
+	 *                     the array was filled.
+	 */
+	public static void readDoubles(ReadableByteChannel channel, double[] doubleArray, ByteOrder order)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(Math.min(doubleArray.length, CHANNEL_CHUNK_SIZE) * Double.BYTES)
+				.order(order);
+
+		for (int from = 0; from < doubleArray.length; from += CHANNEL_CHUNK_SIZE) {
+			int length = Math.min(CHANNEL_CHUNK_SIZE, doubleArray.length - from);
+
+			buffer.clear();
+			buffer.limit(length * Double.BYTES);
+
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new EOFException("The channel ended before all the doubles were read.");
+				}
+			}
+
+			buffer.flip();
+			buffer.asDoubleBuffer().get(doubleArray, from, length);
+		}
+	}
+
+	/**
+	 * Writes the floats to the channel in chunks, without converting all of
+	 * them to bytes at once.
+	 *
+	 * @param channel    The channel that receives the floats.
+	 * @param floatArray The floats to be written.
+	 * @param order      The byte order of the floats in the channel.
+	 * @throws IOException If the channel could not be written.
+	 */
+	public static void writeFloats(WritableByteChannel channel, float[] floatArray, ByteOrder order)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(Math.min(floatArray.length, CHANNEL_CHUNK_SIZE) * Float.BYTES)
+				.order(order);
+
+		for (int from = 0; from < floatArray.length; from += CHANNEL_CHUNK_SIZE) {
+			int length = Math.min(CHANNEL_CHUNK_SIZE, floatArray.length - from);
+
+			buffer.clear();
+			buffer.asFloatBuffer().put(floatArray, from, length);
+			buffer.limit(length * Float.BYTES);
+
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Reads floats from the channel in chunks until the array is filled.
+	 *
+	 * @param channel    The channel with the floats.
+	 * @param floatArray The array that receives the floats.
+	 * @param order      The byte order of the floats in the channel.
+	 * @throws IOException If the channel could not be read or ended before
+	 *                     the array was filled.
+	 */
+	public static void readFloats(ReadableByteChannel channel, float[] floatArray, ByteOrder order)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(Math.min(floatArray.length, CHANNEL_CHUNK_SIZE) * Float.BYTES)
+				.order(order);
+
+		for (int from = 0; from < floatArray.length; from += CHANNEL_CHUNK_SIZE) {
+			int length = Math.min(CHANNEL_CHUNK_SIZE, floatArray.length - from);
+
+			buffer.clear();
+			buffer.limit(length * Float.BYTES);
+
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new EOFException("The channel ended before all the floats were read.");
+				}
+			}
+
+			buffer.flip();
+			buffer.asFloatBuffer().get(floatArray, from, length);
+		}
+	}
+
 	public static byte[] intToByteArray(int integer) {
 		ByteBuffer newBuf = ByteBuffer.allocate(4);
 		newBuf.putInt(integer);
 		return newBuf.array();
 	}
-	
+
 	public static int byteArrayToInt(byte[] array) {
-		ByteBuffer bf = ByteBuffer.wrap(array, 1, 4);
-		return bf.getInt(); 
+		ByteBuffer bf = ByteBuffer.wrap(array, 0, 4);
+		return bf.getInt();
 	}
 }
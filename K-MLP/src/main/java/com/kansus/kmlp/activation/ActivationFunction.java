@@ -13,4 +13,15 @@ public interface ActivationFunction {
      * @return Output's calculation based on the sum of inputs
      */
     double calculateOutput(double summedInput);
+
+    /**
+     * Calculates the derivative of this function at the given input, used by the training to
+     * propagate the errors back through the neurons. The output of this function for the same
+     * input is also given, since many derivatives are cheaper to calculate from it.
+     *
+     * @param summedInput The sum of the inputs of the neuron.
+     * @param output      The output of this function for the sum of the inputs.
+     * @return The derivative of this function at the given input.
+     */
+    double calculateDerivative(double summedInput, double output);
 }
\ No newline at end of file
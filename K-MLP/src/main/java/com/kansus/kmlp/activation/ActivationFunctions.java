@@ -0,0 +1,127 @@
+package com.kansus.kmlp.activation;
+
+import java.util.Locale;
+
+/**
+ * The activation functions that can be assigned to the layers of a network by name, as in the
+ * network configuration, or by identifier, as in the model files. The functions have no state
+ * that changes while they are used, so a single instance of each one is shared by all the layers
+ * and neurons.
+ */
+public final class ActivationFunctions {
+
+    /**
+     * The hyperbolic tangent calculated by the exponential formula, used by all the networks
+     * before the activation functions could be chosen.
+     */
+    public static final ActivationFunction DEFAULT = new DefaultActivationFunction();
+
+    public static final ActivationFunction HYPERBOLIC_TANGENT = new HyperbolicTangentActivationFunction();
+
+    public static final ActivationFunction SIGMOID = new SigmoidActivationFunction(1);
+
+    public static final ActivationFunction RECTIFIED_LINEAR = new RectifiedLinearActivationFunction();
+
+    public static final ActivationFunction LINEAR = new LinearCombinationFunction();
+
+    public static final ActivationFunction SINUSOID = new SinusoidActivationFunction();
+
+    public static final ActivationFunction STEP = new StepActivationFunction();
+
+    /**
+     * An approximation of the hyperbolic tangent that is much faster than {@link #DEFAULT}, with
+     * an absolute error of at most {@link FastHyperbolicTangentActivationFunction#MAXIMUM_ERROR}.
+     */
+    public static final ActivationFunction FAST_HYPERBOLIC_TANGENT = new FastHyperbolicTangentActivationFunction();
+
+    /**
+     * The softmax, which can only be used by the output layer and trains the network with the
+     * cross-entropy loss.
+     */
+    public static final ActivationFunction SOFTMAX = new SoftmaxActivationFunction();
+
+    /**
+     * The functions indexed by their identifiers, which are written in the model files and so
+     * must never change.
+     */
+    private static final ActivationFunction[] FUNCTIONS = {
+            DEFAULT, HYPERBOLIC_TANGENT, SIGMOID, RECTIFIED_LINEAR, LINEAR, SINUSOID, STEP,
+            FAST_HYPERBOLIC_TANGENT, SOFTMAX
+    };
+
+    /**
+     * The names of the functions, indexed as {@link #FUNCTIONS}.
+     */
+    private static final String[] NAMES = {
+            "default", "tanh", "sigmoid", "relu", "linear", "sinusoid", "step", "fast_tanh", "softmax"
+    };
+
+    private ActivationFunctions() {
+    }
+
+    /**
+     * Returns the activation function with the given name, ignoring the case.
+     *
+     * @param name The name of the activation function.
+     * @return The activation function.
+     * @throws IllegalArgumentException If there is no activation function with the given name.
+     */
+    public static ActivationFunction forName(String name) {
+        String lowerCaseName = name.toLowerCase(Locale.ROOT);
+
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(lowerCaseName)) {
+                return FUNCTIONS[i];
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown activation function: " + name);
+    }
+
+    /**
+     * Returns the activation function with the given identifier.
+     *
+     * @param id The identifier of the activation function.
+     * @return The activation function.
+     * @throws IllegalArgumentException If there is no activation function with the given
+     *                                  identifier.
+     */
+    public static ActivationFunction forId(int id) {
+        if (id < 0 || id >= FUNCTIONS.length) {
+            throw new IllegalArgumentException("Unknown activation function id: " + id);
+        }
+
+        return FUNCTIONS[id];
+    }
+
+    /**
+     * Returns the identifier of one of the shared activation functions.
+     *
+     * @param function The activation function.
+     * @return The identifier of the activation function.
+     * @throws IllegalArgumentException If the function is not one of the shared instances of this
+     *                                  class.
+     */
+    public static int getId(ActivationFunction function) {
+        for (int i = 0; i < FUNCTIONS.length; i++) {
+            if (FUNCTIONS[i] == function) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException("The activation function "
+                + function.getClass().getSimpleName() + " has no identifier.");
+    }
+
+    /**
+     * Returns the name of one of the shared activation functions.
+     *
+     * @param function The activation function.
+     * @return The name of the activation function.
+     * @throws IllegalArgumentException If the function is not one of the shared instances of this
+     *                                  class.
+     */
+    public static String getName(ActivationFunction function) {
+        return NAMES[getId(function)];
+    }
+}
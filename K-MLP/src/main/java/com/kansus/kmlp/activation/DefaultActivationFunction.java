@@ -14,4 +14,14 @@ public class DefaultActivationFunction implements ActivationFunction {
     public double calculateOutput(double summedInput) {
         return ((1 - Math.exp(-2 * summedInput)) / (1 + Math.exp(-2 * summedInput)));
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * y' = 1 - y^2
+     */
+    @Override
+    public double calculateDerivative(double summedInput, double output) {
+        return 1 - (output * output);
+    }
 }
\ No newline at end of file
@@ -14,4 +14,14 @@ public class HyperbolicTangentActivationFunction implements ActivationFunction {
     public double calculateOutput(double summedInput) {
         return Math.tanh(summedInput);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * y' = 1 - y^2
+     */
+    @Override
+    public double calculateDerivative(double summedInput, double output) {
+        return 1 - (output * output);
+    }
 }
\ No newline at end of file
@@ -18,4 +18,14 @@ public class LinearCombinationFunction implements ActivationFunction {
     public double calculateOutput(double summedInput) {
         return summedInput + bias;
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * y' = 1
+     */
+    @Override
+    public double calculateDerivative(double summedInput, double output) {
+        return 1;
+    }
 }
\ No newline at end of file
@@ -12,4 +12,14 @@ public class RectifiedLinearActivationFunction implements ActivationFunction {
     public double calculateOutput(double summedInput) {
         return Math.max(0, summedInput);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * y' = 1 if x &gt; 0, or 0 otherwise
+     */
+    @Override
+    public double calculateDerivative(double summedInput, double output) {
+        return summedInput > 0 ? 1 : 0;
+    }
 }
\ No newline at end of file
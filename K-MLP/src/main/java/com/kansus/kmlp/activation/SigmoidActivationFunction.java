@@ -29,4 +29,14 @@ public class SigmoidActivationFunction implements ActivationFunction {
         double denominator = 1 + Math.exp(-slope * summedInput);
         return (1d / denominator);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * y' = slope * y * (1 - y)
+     */
+    @Override
+    public double calculateDerivative(double summedInput, double output) {
+        return slope * output * (1 - output);
+    }
 }
\ No newline at end of file
@@ -14,4 +14,14 @@ public class SinusoidActivationFunction implements ActivationFunction {
     public double calculateOutput(double summedInput) {
         return Math.sin(summedInput);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * y' = cos(x)
+     */
+    @Override
+    public double calculateDerivative(double summedInput, double output) {
+        return Math.cos(summedInput);
+    }
 }
\ No newline at end of file
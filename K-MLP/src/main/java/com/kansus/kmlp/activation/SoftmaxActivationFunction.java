@@ -0,0 +1,65 @@
+package com.kansus.kmlp.activation;
+
+/**
+ * Softmax activation function, for output layers whose neurons are the classes of a
+ * classification. Calculation is based on:
+ * <p>
+ * yj = e^xj / sum(e^xk)
+ * <p>
+ * Since every output depends on the summed inputs of all the neurons of the layer, this function
+ * only passes the summed input of each neuron through, and the layer normalizes all of its outputs
+ * at once with {@link #normalize(double[], int, int)}. The outputs are probabilities that add up to
+ * 1, so the network is trained with the cross-entropy loss instead of the mean squared error, and
+ * the expected outputs must also add up to 1, like 1 for the right class and 0 for the others.
+ */
+public class SoftmaxActivationFunction implements ActivationFunction {
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * y = x, normalized afterwards over the whole layer
+     */
+    @Override
+    public double calculateOutput(double summedInput) {
+        return summedInput;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * y' = y * (1 - y), which is only the diagonal of the Jacobian of the softmax. The errors of a
+     * softmax output layer are calculated directly from the cross-entropy instead.
+     */
+    @Override
+    public double calculateDerivative(double summedInput, double output) {
+        return output * (1 - output);
+    }
+
+    /**
+     * Replaces a range of summed inputs by their softmax, in a single pass after finding their
+     * maximum. The maximum is subtracted from every summed input before the exponential, which
+     * does not change the result but keeps the exponentials from overflowing.
+     *
+     * @param values The summed inputs, which receive the outputs.
+     * @param offset The index of the first summed input of the range.
+     * @param count  The amount of summed inputs of the range.
+     */
+    public static void normalize(double[] values, int offset, int count) {
+        double max = Double.NEGATIVE_INFINITY;
+
+        for (int j = offset; j < offset + count; j++) {
+            max = Math.max(max, values[j]);
+        }
+
+        double sum = 0;
+
+        for (int j = offset; j < offset + count; j++) {
+            values[j] = Math.exp(values[j] - max);
+            sum += values[j];
+        }
+
+        for (int j = offset; j < offset + count; j++) {
+            values[j] /= sum;
+        }
+    }
+}
@@ -35,4 +35,16 @@ public class StepActivationFunction implements ActivationFunction {
             return yBellow;
         }
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The derivative is 0 everywhere except at the threshold, where it is undefined, so the errors
+     * are not propagated through the neurons that use this function and their weights never
+     * change. This function is only useful in layers that are not trained.
+     */
+    @Override
+    public double calculateDerivative(double summedInput, double output) {
+        return 0;
+    }
 }
\ No newline at end of file
@@ -4,7 +4,7 @@ import com.kansus.kmlp.activation.*;
 
 public class ActivationFunctionInjector {
 
-    private ActivationFunction current = new DefaultActivationFunction();
+    private ActivationFunction current = ActivationFunctions.DEFAULT;
 
     public ActivationFunction getCurrent() {
         return current;
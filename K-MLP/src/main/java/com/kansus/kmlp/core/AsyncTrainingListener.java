@@ -0,0 +1,306 @@
+package com.kansus.kmlp.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Training listener that forwards the events of a training to another listener in a background
+ * thread, so a slow console or disk never stalls the training. The events go through a bounded
+ * lock-free ring, which the training thread fills without ever taking a lock and the reporter
+ * thread drains in the same order.
+ * <p>
+ * When the reporter falls behind and the ring is full, the progress events are coalesced: only the
+ * latest one is kept and sent as soon as there is room again, so the training goes on without
+ * waiting. The other events are rare and are never dropped, so they wait for room instead. The
+ * completion of the training waits until every event has been delivered, so the listener has seen
+ * the whole training when {@link MultilayerPerceptron#train(NetworkTrainingListener)} returns.
+ * <p>
+ * An exception or error thrown by the listener stops the training as it would with the listener
+ * called directly: it is kept by the reporter thread, which goes on delivering the events so the
+ * training never waits for it forever, and thrown again in the training thread by the next event
+ * of the training, by its completion or by {@link #close()}. Closing the listener with a
+ * try-with-resources statement keeps the exception of a failed training as the one thrown, with
+ * the one of the listener suppressed.
+ */
+public class AsyncTrainingListener implements NetworkTrainingListener, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final NetworkTrainingListener mListener;
+
+    private final AtomicReferenceArray<Runnable> mEvents;
+
+    private final AtomicLongArray mSequences;
+
+    private final int mMask;
+
+    private final AtomicLong mTail = new AtomicLong();
+
+    private long mHead;
+
+    private volatile long mDelivered;
+
+    private volatile boolean mClosed;
+
+    private Runnable mPendingProgress;
+
+    private volatile Throwable mFailure;
+
+    private final Thread mReporter;
+
+    /**
+     * Constructor of this class, with a ring of {@link #DEFAULT_CAPACITY} events.
+     *
+     * @param listener The listener that receives the events in the background.
+     */
+    public AsyncTrainingListener(NetworkTrainingListener listener) {
+        this(listener, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor of this class.
+     *
+     * @param listener The listener that receives the events in the background.
+     * @param capacity The amount of events the ring holds, rounded up to a power of two.
+     */
+    public AsyncTrainingListener(NetworkTrainingListener listener, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1.");
+        }
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+
+        this.mListener = listener;
+        this.mEvents = new AtomicReferenceArray<>(size);
+        this.mSequences = new AtomicLongArray(size);
+        this.mMask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            mSequences.set(i, i);
+        }
+
+        this.mReporter = new Thread(this::report, "kmlp-reporter");
+        this.mReporter.setDaemon(true);
+        this.mReporter.start();
+    }
+
+    @Override
+    public void onTrainingStarted() {
+        put(mListener::onTrainingStarted);
+    }
+
+    @Override
+    public void onTrainingProgressChanged(int epochs, double error) {
+        putProgress(() -> mListener.onTrainingProgressChanged(epochs, error));
+    }
+
+    @Override
+    public void onTrainingProgressChanged(int epochs, double error, double learningRate) {
+        putProgress(() -> mListener.onTrainingProgressChanged(epochs, error, learningRate));
+    }
+
+    @Override
+    public void onValidationCompleted(int epochs, double error, double bestError) {
+        put(() -> mListener.onValidationCompleted(epochs, error, bestError));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This event comes from the checkpoint thread, so it goes straight to the ring, without
+     * touching the progress event kept by the training thread.
+     */
+    @Override
+    public void onCheckpointSaved(int epochs, File file) {
+        offerOrWait(() -> mListener.onCheckpointSaved(epochs, file));
+    }
+
+    @Override
+    public void onCheckpointFailed(int epochs, File file, IOException exception) {
+        put(() -> mListener.onCheckpointFailed(epochs, file, exception));
+    }
+
+    @Override
+    public void onTrainingCompleted(int epochs, double error, long totalTime) {
+        put(() -> mListener.onTrainingCompleted(epochs, error, totalTime));
+
+        while (mDelivered != mTail.get()) {
+            LockSupport.unpark(mReporter);
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+
+        rethrowFailure();
+    }
+
+    /**
+     * Delivers the events still in the ring and stops the reporter thread. No events should be
+     * sent to this listener afterwards.
+     *
+     * @throws RuntimeException If the listener threw an exception that was not thrown again in the
+     *                          training thread yet.
+     * @throws Error            If the listener threw an error that was not thrown again in the
+     *                          training thread yet.
+     */
+    @Override
+    public void close() {
+        mClosed = true;
+        LockSupport.unpark(mReporter);
+
+        try {
+            mReporter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        rethrowFailure();
+    }
+
+    /**
+     * Throws again, in the calling thread, the exception or error the listener threw in the
+     * reporter thread, if any. It is only thrown once. The listener can only throw a checked
+     * exception by cheating the compiler, so such an exception is wrapped.
+     */
+    private void rethrowFailure() {
+        Throwable failure = mFailure;
+
+        if (failure != null) {
+            mFailure = null;
+
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else {
+                throw new IllegalStateException("The training listener failed.", failure);
+            }
+        }
+    }
+
+    /**
+     * Adds a progress event to the ring, or keeps it in place of the previous one if the ring is
+     * full. The kept event is sent before any newer event, so the order is never changed.
+     *
+     * @param event The progress event.
+     */
+    private void putProgress(Runnable event) {
+        rethrowFailure();
+
+        if (mPendingProgress != null) {
+            if (!offer(mPendingProgress)) {
+                mPendingProgress = event;
+                return;
+            }
+
+            mPendingProgress = null;
+        }
+
+        if (!offer(event)) {
+            mPendingProgress = event;
+        }
+    }
+
+    /**
+     * Adds an event of the training thread to the ring, after the progress event kept there, if
+     * any, waiting for room if the ring is full.
+     *
+     * @param event The event.
+     */
+    private void put(Runnable event) {
+        rethrowFailure();
+
+        if (mPendingProgress != null) {
+            offerOrWait(mPendingProgress);
+            mPendingProgress = null;
+        }
+
+        offerOrWait(event);
+    }
+
+    /**
+     * Adds an event to the ring, waiting for room if it is full.
+     *
+     * @param event The event.
+     */
+    private void offerOrWait(Runnable event) {
+        while (!offer(event)) {
+            LockSupport.unpark(mReporter);
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Adds an event to the ring if there is room. Each slot has a sequence which tells whether it
+     * is free for the producer at a given position or holds an event for the reporter, so the
+     * producers only compete for the tail, with a compare and set.
+     *
+     * @param event The event.
+     * @return True if the event was added, false if the ring is full.
+     */
+    private boolean offer(Runnable event) {
+        long tail = mTail.get();
+
+        while (true) {
+            int index = (int) (tail & mMask);
+            long sequence = mSequences.get(index);
+
+            if (sequence == tail) {
+                if (mTail.compareAndSet(tail, tail + 1)) {
+                    mEvents.lazySet(index, event);
+                    mSequences.lazySet(index, tail + 1);
+                    return true;
+                }
+
+                tail = mTail.get();
+            } else if (sequence < tail) {
+                return false;
+            } else {
+                tail = mTail.get();
+            }
+        }
+    }
+
+    /**
+     * Delivers the events of the ring in order until this listener is closed, sleeping a bit
+     * whenever the ring is empty. The first exception or error thrown by the listener is kept for
+     * the training thread, and the next events are still delivered, so the training thread never
+     * waits for a reporter that is gone.
+     */
+    private void report() {
+        while (true) {
+            int index = (int) (mHead & mMask);
+
+            if (mSequences.get(index) != mHead + 1) {
+                if (mClosed && mTail.get() == mHead) {
+                    return;
+                }
+
+                LockSupport.parkNanos(POLL_NANOS);
+                continue;
+            }
+
+            Runnable event = mEvents.get(index);
+            mEvents.lazySet(index, null);
+            mSequences.lazySet(index, mHead + mMask + 1);
+            mHead++;
+
+            try {
+                event.run();
+            } catch (Throwable e) {
+                if (mFailure == null) {
+                    mFailure = e;
+                }
+            }
+
+            mDelivered = mHead;
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.activation.ActivationFunction;
+import com.kansus.kmlp.activation.ActivationFunctions;
+import com.kansus.kmlp.initialization.WeightInitializer;
+import com.kansus.kmlp.initialization.WeightInitializers;
+import com.kansus.kmlp.optimizer.WeightUpdater;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the checkpoints of the trainings, which hold everything needed to resume a
+ * training exactly where it stopped: the weights, the state of the optimizer, of the learning rate
+ * schedule, of the random number generator and of the validation, and the order of the patterns.
+ * All the values are big-endian.
+ * <p>
+ * <pre>
+ * int     magic number, "KCKP"
+ * int     format version
+ * byte    data type of the weights, as in the model files
+ * int     amount of layers, including the input layer
+ * int[]   amount of neurons of each layer
+ * byte[]  activation function of each layer, except the input layer, see {@link ActivationFunctions}
+ * byte[]  weight initializer of each layer, except the input layer, see {@link WeightInitializers}
+ * int     amount of arrays of the state of the optimizer of each layer
+ * int     amount of training patterns
+ * int     epochs counter of the training
+ * long    time spent training, in milliseconds
+ * double  mean loss of the last epoch
+ * int     amount of updates of the weights
+ * int     amount of values of the state of the learning rate schedule
+ * double[] state of the learning rate schedule
+ * double  best validation error, or NaN if the network was not validated yet
+ * int     epochs counter of the best validation error
+ * byte    1 if the weights of the best validation error follow the weights, 0 otherwise
+ * int     length of the random number generator
+ * byte[]  random number generator, serialized
+ * int[]   indexes of the training patterns, in their current order
+ * ...     weights block, as in the model files
+ * ...     weights block of the best validation error, if any
+ * ...     state of the optimizer, every array of every layer as 64 bits floating point numbers
+ * int     CRC32 of all the previous bytes
+ * </pre>
+ * The checkpoints are encoded in memory at the end of an epoch, which takes much less than an
+ * epoch, and written to disk by another thread. They are written to a temporary file that then
+ * replaces the checkpoint, so a crash while writing never leaves a partial checkpoint behind.
+ */
+final class CheckpointFile {
+
+    /**
+     * The first bytes of every checkpoint, "KCKP" in ASCII.
+     */
+    static final int MAGIC = 0x4B434B50;
+
+    /**
+     * The version of the format written by this class.
+     */
+    static final int VERSION = 2;
+
+    private CheckpointFile() {
+    }
+
+    /**
+     * Encodes the state of a training into a checkpoint.
+     *
+     * @param network             The network being trained.
+     * @param epochs              The epochs counter of the training.
+     * @param elapsedTime         The time spent training, in milliseconds.
+     * @param loss                The mean loss of the last epoch.
+     * @param random              The random number generator of the training.
+     * @param order               The indexes of the training patterns, in their current order.
+     * @param scheduleState       The state of the learning rate schedule.
+     * @param bestValidationError The best validation error, or NaN.
+     * @param bestEpochs          The epochs counter of the best validation error.
+     * @param bestNetwork         The copy of the network with the weights of the best validation
+     *                            error, or null.
+     * @return A buffer with the whole checkpoint, ready to be written.
+     * @throws IOException If one of the layers has an activation function that is not one of the
+     *                     {@link ActivationFunctions} or a weight initializer that is not one of
+     *                     the {@link WeightInitializers}.
+     */
+    static ByteBuffer encode(DenseNetwork network, int epochs, long elapsedTime, double loss, Random random,
+                             int[] order, double[] scheduleState, double bestValidationError, int bestEpochs,
+                             DenseNetwork bestNetwork) throws IOException {
+        int layersCount = network.getLayersCount() + 1;
+        byte[] randomBytes = serialize(random);
+        int stateArraysCount = getStateArraysCount(network);
+        long weightsLength = (long) network.getWeightsCount() * getWeightBytes(network.getPrecision());
+        long length = (10 * Integer.BYTES) + 2 + Long.BYTES + (2 * Double.BYTES) + (layersCount * Integer.BYTES)
+                + 2 * (layersCount - 1) + (scheduleState.length * Double.BYTES) + randomBytes.length
+                + ((long) order.length * Integer.BYTES) + weightsLength + (bestNetwork != null ? weightsLength : 0)
+                + ((long) stateArraysCount * network.getWeightsCount() * Double.BYTES) + Integer.BYTES;
+
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("The checkpoint of the network is too big.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.put(network.getPrecision() == Precision.FLOAT ? ModelFile.DTYPE_FLOAT32 : ModelFile.DTYPE_FLOAT64);
+        buffer.putInt(layersCount);
+
+        for (int size : network.getLayerSizes()) {
+            buffer.putInt(size);
+        }
+
+        try {
+            for (ActivationFunction activationFunction : network.getActivationFunctions()) {
+                buffer.put((byte) ActivationFunctions.getId(activationFunction));
+            }
+
+            for (WeightInitializer weightInitializer : network.getWeightInitializers()) {
+                buffer.put((byte) WeightInitializers.getId(weightInitializer));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The network can't be saved. " + e.getMessage(), e);
+        }
+
+        buffer.putInt(stateArraysCount);
+        buffer.putInt(order.length);
+        buffer.putInt(epochs);
+        buffer.putLong(elapsedTime);
+        buffer.putDouble(loss);
+        buffer.putInt(network.getUpdatesCount());
+        buffer.putInt(scheduleState.length);
+
+        for (double value : scheduleState) {
+            buffer.putDouble(value);
+        }
+
+        buffer.putDouble(bestValidationError);
+        buffer.putInt(bestEpochs);
+        buffer.put((byte) (bestNetwork != null ? 1 : 0));
+        buffer.putInt(randomBytes.length);
+        buffer.put(randomBytes);
+
+        for (int index : order) {
+            buffer.putInt(index);
+        }
+
+        BufferChannel channel = new BufferChannel(buffer);
+        writeWeights(network, channel);
+
+        if (bestNetwork != null) {
+            writeWeights(bestNetwork, channel);
+        }
+
+        for (int i = 0; i < network.getLayersCount(); i++) {
+            WeightUpdater weightUpdater = network.getLayer(i).getWeightUpdater();
+
+            if (weightUpdater != null) {
+                for (double[] array : weightUpdater.getState()) {
+                    buffer.asDoubleBuffer().put(array);
+                    buffer.position(buffer.position() + array.length * Double.BYTES);
+                }
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer checksummed = buffer.duplicate();
+        checksummed.flip();
+        crc.update(checksummed);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Writes an encoded checkpoint to a file, replacing it only after the whole checkpoint is on
+     * the disk. The checkpoint is written to a temporary file next to the file, which is then
+     * moved over the file, atomically when the file system supports it.
+     *
+     * @param checkpoint The encoded checkpoint.
+     * @param file       The file in which to save the checkpoint.
+     * @throws IOException If the checkpoint could not be written.
+     */
+    static void write(ByteBuffer checkpoint, File file) throws IOException {
+        Path target = file.toPath();
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (checkpoint.hasRemaining()) {
+                channel.write(checkpoint);
+            }
+
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a checkpoint and restores the weights, the state of the optimizer and the amount of
+     * updates of the given network. Everything that must match the network and the training is
+     * checked before the network is modified.
+     *
+     * @param file          The checkpoint file.
+     * @param network       The network that receives the weights, with the optimizer of the
+     *                      training that saved the checkpoint.
+     * @param patternsCount The amount of training patterns of the training being resumed.
+     * @return The rest of the state of the training.
+     * @throws IOException If the file could not be read, is not a checkpoint, is corrupted or
+     *                     does not match the network or the training.
+     */
+    static Checkpoint read(File file, DenseNetwork network, int patternsCount) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).order(ByteOrder.BIG_ENDIAN);
+
+        if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("The file \"" + file + "\" is not a training checkpoint.");
+        }
+
+        ByteBuffer checksummed = buffer.duplicate();
+        checksummed.position(0).limit(buffer.limit() - Integer.BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(checksummed);
+
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - Integer.BYTES)) {
+            throw new IOException("The training checkpoint \"" + file + "\" is corrupted.");
+        }
+
+        try {
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("The training checkpoint \"" + file + "\" has the unsupported version "
+                        + version + ".");
+            }
+
+            byte dataType = buffer.get();
+            if (dataType != ModelFile.DTYPE_FLOAT64 && dataType != ModelFile.DTYPE_FLOAT32) {
+                throw new IOException("The training checkpoint \"" + file + "\" has the unsupported data type "
+                        + dataType + ".");
+            }
+
+            Precision precision = dataType == ModelFile.DTYPE_FLOAT32 ? Precision.FLOAT : Precision.DOUBLE;
+            checkTopology(buffer, file, network);
+
+            int stateArraysCount = buffer.getInt();
+            if (stateArraysCount != getStateArraysCount(network)) {
+                throw new IOException("The training checkpoint \"" + file + "\" was saved with another optimizer.");
+            }
+
+            int checkpointPatternsCount = buffer.getInt();
+            if (checkpointPatternsCount != patternsCount) {
+                throw new IOException("The training checkpoint \"" + file + "\" was saved with "
+                        + checkpointPatternsCount + " training patterns, but the training has " + patternsCount + ".");
+            }
+
+            int epochs = buffer.getInt();
+            long elapsedTime = buffer.getLong();
+            double loss = buffer.getDouble();
+            int updatesCount = buffer.getInt();
+            double[] scheduleState = new double[buffer.getInt()];
+
+            for (int i = 0; i < scheduleState.length; i++) {
+                scheduleState[i] = buffer.getDouble();
+            }
+
+            double bestValidationError = buffer.getDouble();
+            int bestEpochs = buffer.getInt();
+            boolean hasBestNetwork = buffer.get() != 0;
+            byte[] randomBytes = new byte[buffer.getInt()];
+            buffer.get(randomBytes);
+            Random random = deserialize(randomBytes, file);
+            int[] order = new int[patternsCount];
+
+            for (int i = 0; i < order.length; i++) {
+                order[i] = buffer.getInt();
+            }
+
+            long weightsLength = (long) network.getWeightsCount() * getWeightBytes(precision);
+            long remainingLength = weightsLength + (hasBestNetwork ? weightsLength : 0)
+                    + ((long) stateArraysCount * network.getWeightsCount() * Double.BYTES) + Integer.BYTES;
+
+            if (buffer.remaining() != remainingLength) {
+                throw new IOException("The training checkpoint \"" + file + "\" has " + buffer.remaining()
+                        + " bytes of weights, but the network needs " + remainingLength + " bytes.");
+            }
+
+            readWeights(buffer, network, precision);
+            DenseNetwork bestNetwork = null;
+
+            if (hasBestNetwork) {
+                bestNetwork = network.copy();
+                readWeights(buffer, bestNetwork, precision);
+            }
+
+            for (int i = 0; i < network.getLayersCount(); i++) {
+                WeightUpdater weightUpdater = network.getLayer(i).getWeightUpdater();
+
+                if (weightUpdater != null) {
+                    for (double[] array : weightUpdater.getState()) {
+                        buffer.asDoubleBuffer().get(array);
+                        buffer.position(buffer.position() + array.length * Double.BYTES);
+                    }
+                }
+            }
+
+            network.setUpdatesCount(updatesCount);
+            return new Checkpoint(epochs, elapsedTime, loss, random, order, scheduleState, bestValidationError,
+                    bestEpochs, bestNetwork);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("The training checkpoint \"" + file + "\" is truncated.");
+        }
+    }
+
+    /**
+     * Checks that the topology, the activation functions and the weight initializers described by
+     * a checkpoint are the ones of the network.
+     */
+    private static void checkTopology(ByteBuffer buffer, File file, DenseNetwork network) throws IOException {
+        int[] layerSizes = network.getLayerSizes();
+        ActivationFunction[] activationFunctions = network.getActivationFunctions();
+        WeightInitializer[] weightInitializers = network.getWeightInitializers();
+        boolean matches = buffer.getInt() == layerSizes.length;
+
+        try {
+            for (int i = 0; matches && i < layerSizes.length; i++) {
+                matches = buffer.getInt() == layerSizes[i];
+            }
+
+            for (int i = 0; matches && i < activationFunctions.length; i++) {
+                matches = buffer.get() == ActivationFunctions.getId(activationFunctions[i]);
+            }
+
+            for (int i = 0; matches && i < weightInitializers.length; i++) {
+                matches = buffer.get() == WeightInitializers.getId(weightInitializers[i]);
+            }
+        } catch (IllegalArgumentException e) {
+            matches = false;
+        }
+
+        if (!matches) {
+            throw new IOException("The training checkpoint \"" + file + "\" was saved by a network with another "
+                    + "topology, activation functions or weight initialization.");
+        }
+    }
+
+    /**
+     * Returns the amount of arrays of the state of the optimizer of each layer of the network.
+     */
+    private static int getStateArraysCount(DenseNetwork network) {
+        WeightUpdater weightUpdater = network.getLayer(0).getWeightUpdater();
+        return weightUpdater != null ? weightUpdater.getState().length : 0;
+    }
+
+    private static int getWeightBytes(Precision precision) {
+        return precision == Precision.FLOAT ? Float.BYTES : Double.BYTES;
+    }
+
+    private static void writeWeights(DenseNetwork network, WritableByteChannel channel) throws IOException {
+        for (int i = 0; i < network.getLayersCount(); i++) {
+            network.getLayer(i).writeWeights(channel);
+        }
+    }
+
+    private static void readWeights(ByteBuffer buffer, DenseNetwork network, Precision precision) {
+        for (int i = 0; i < network.getLayersCount(); i++) {
+            network.getLayer(i).readWeights(buffer, precision);
+        }
+    }
+
+    /**
+     * Serializes the random number generator, whose state can't be read otherwise.
+     */
+    private static byte[] serialize(Random random) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(random);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static Random deserialize(byte[] bytes, File file) throws IOException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Random) input.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("The training checkpoint \"" + file + "\" has an invalid random number "
+                    + "generator.", e);
+        }
+    }
+
+    /**
+     * The state of a training read from a checkpoint, besides the weights and the state of the
+     * optimizer, which are restored straight into the network.
+     */
+    static final class Checkpoint {
+
+        private final int mEpochs;
+
+        private final long mElapsedTime;
+
+        private final double mLoss;
+
+        private final Random mRandom;
+
+        private final int[] mOrder;
+
+        private final double[] mScheduleState;
+
+        private final double mBestValidationError;
+
+        private final int mBestEpochs;
+
+        private final DenseNetwork mBestNetwork;
+
+        Checkpoint(int epochs, long elapsedTime, double loss, Random random, int[] order,
+                   double[] scheduleState, double bestValidationError, int bestEpochs,
+                   DenseNetwork bestNetwork) {
+            this.mEpochs = epochs;
+            this.mElapsedTime = elapsedTime;
+            this.mLoss = loss;
+            this.mRandom = random;
+            this.mOrder = order;
+            this.mScheduleState = scheduleState;
+            this.mBestValidationError = bestValidationError;
+            this.mBestEpochs = bestEpochs;
+            this.mBestNetwork = bestNetwork;
+        }
+
+        int getEpochs() {
+            return mEpochs;
+        }
+
+        long getElapsedTime() {
+            return mElapsedTime;
+        }
+
+        double getLoss() {
+            return mLoss;
+        }
+
+        Random getRandom() {
+            return mRandom;
+        }
+
+        int[] getOrder() {
+            return mOrder;
+        }
+
+        double[] getScheduleState() {
+            return mScheduleState;
+        }
+
+        double getBestValidationError() {
+            return mBestValidationError;
+        }
+
+        int getBestEpochs() {
+            return mBestEpochs;
+        }
+
+        DenseNetwork getBestNetwork() {
+            return mBestNetwork;
+        }
+    }
+
+    /**
+     * A channel that writes into a buffer.
+     */
+    private static class BufferChannel implements WritableByteChannel {
+
+        private final ByteBuffer mBuffer;
+
+        BufferChannel(ByteBuffer buffer) {
+            this.mBuffer = buffer;
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            int bytesWritten = source.remaining();
+            mBuffer.put(source);
+            return bytesWritten;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.kansus.kmlp.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when the checkpoints of a training are due and writes them to disk in a background
+ * thread, so the training only stops for as long as it takes to encode them. A checkpoint is due
+ * every given amount of epochs or minutes since the last one. While a checkpoint is still being
+ * written, the next ones are postponed instead of piling up in memory.
+ * <p>
+ * A write that fails keeps its exception, which is reported to the listener by the thread of the
+ * training the next time a checkpoint is due or when the writer is closed, through {@link
+ * NetworkTrainingListener#onCheckpointFailed(int, File, IOException)}.
+ */
+class CheckpointWriter {
+
+    private final File mFile;
+
+    private final int mInterval;
+
+    private final long mPeriodMillis;
+
+    private final NetworkTrainingListener mListener;
+
+    private final ExecutorService mExecutor;
+
+    private Future<?> mPendingWrite;
+
+    private int mPendingEpochs;
+
+    private int mLastEpochs;
+
+    private long mLastTime;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param file     The file in which to save the checkpoints.
+     * @param interval The amount of epochs between the checkpoints, or 0 to only count the time.
+     * @param minutes  The amount of minutes between the checkpoints, or 0 to only count the epochs.
+     * @param epochs   The epochs counter of the training when it starts or resumes.
+     * @param listener The listener notified of the checkpoints saved, or null.
+     */
+    CheckpointWriter(File file, int interval, int minutes, int epochs, NetworkTrainingListener listener) {
+        this.mFile = file;
+        this.mInterval = interval;
+        this.mPeriodMillis = TimeUnit.MINUTES.toMillis(minutes);
+        this.mListener = listener;
+        this.mLastEpochs = epochs;
+        this.mLastTime = System.currentTimeMillis();
+        this.mExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kmlp-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns whether a checkpoint is due at the given epoch, and the previous one is already on
+     * the disk. If the previous one failed, the failure is reported first.
+     *
+     * @param epochs The epochs counter of the training.
+     * @return True if a checkpoint should be written now.
+     */
+    boolean isDue(int epochs) {
+        if (mPendingWrite != null) {
+            if (!mPendingWrite.isDone()) {
+                return false;
+            }
+
+            reportPendingWrite();
+        }
+
+        return (mInterval > 0 && epochs - mLastEpochs >= mInterval)
+                || (mPeriodMillis > 0 && System.currentTimeMillis() - mLastTime >= mPeriodMillis);
+    }
+
+    /**
+     * Writes an encoded checkpoint in the background.
+     *
+     * @param checkpoint The encoded checkpoint.
+     * @param epochs     The epochs counter of the training at the checkpoint.
+     */
+    void write(ByteBuffer checkpoint, int epochs) {
+        mLastEpochs = epochs;
+        mLastTime = System.currentTimeMillis();
+        mPendingEpochs = epochs;
+        mPendingWrite = mExecutor.submit(() -> {
+            CheckpointFile.write(checkpoint, mFile);
+
+            if (mListener != null) {
+                mListener.onCheckpointSaved(epochs, mFile);
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Reports a checkpoint that could not be encoded or written.
+     *
+     * @param epochs    The epochs counter of the training at the checkpoint.
+     * @param exception The failure.
+     */
+    void fail(int epochs, IOException exception) {
+        if (mListener != null) {
+            mListener.onCheckpointFailed(epochs, mFile, exception);
+        } else {
+            throw new UncheckedIOException("The training checkpoint \"" + mFile + "\" could not be saved.",
+                    exception);
+        }
+    }
+
+    /**
+     * Waits for the checkpoint being written, if any, and stops the background thread. A failure
+     * of the last checkpoint is not reported, see {@link #reportPendingWrite()}.
+     */
+    void close() {
+        mExecutor.shutdown();
+
+        try {
+            mExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the checkpoint being written, if any, and reports it if it failed.
+     */
+    void reportPendingWrite() {
+        Future<?> pendingWrite = mPendingWrite;
+        mPendingWrite = null;
+
+        if (pendingWrite == null) {
+            return;
+        }
+
+        try {
+            pendingWrite.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                fail(mPendingEpochs, (IOException) e.getCause());
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,627 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.activation.ActivationFunction;
+import com.kansus.kmlp.activation.SoftmaxActivationFunction;
+import com.kansus.kmlp.initialization.WeightInitializer;
+import com.kansus.kmlp.math.Kernels;
+import com.kansus.kmlp.model.BinaryInput;
+import com.kansus.kmlp.optimizer.WeightUpdater;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+/**
+ * This class represents a fully connected layer of a multilayer perceptron neural network. The
+ * weights of all the neurons of the layer are kept by the subclasses in a single row-major array of
+ * their precision, one row per neuron, followed by the biases of the neurons when the layer has
+ * them, and the outputs, errors and gradients of the neurons are kept in double precision buffers
+ * that are reused by every pattern. The biases are updated like the weights of an input that is
+ * always 1, so they share the gradients and the optimizer state of the weights.
+ * <p>
+ * The layers without biases divide the weighted sum of the inputs by twice their amount of
+ * neurons, as the networks did before the biases existed.
+ * <p>
+ * An output layer with the softmax activation function is trained with the cross-entropy loss,
+ * whose gradient combined with the one of the softmax is just the difference between the expected
+ * and the actual outputs. Any other output layer is trained with the mean squared error.
+ */
+abstract class DenseLayer {
+
+    /**
+     * The amount of neurons whose weights are reused for all the samples of a batch before moving
+     * on to the next neurons.
+     */
+    static final int BATCH_NEURONS_BLOCK = 16;
+
+    /**
+     * The kernels that run the inner loops of the layers, selected once for the whole JVM.
+     */
+    static final Kernels KERNELS = Kernels.get();
+
+    private final int mNeuronsCount;
+
+    private final int mInputsCount;
+
+    private final double[] mSummedInputs;
+
+    private final double[] mOutputs;
+
+    private final double[] mErrors;
+
+    private double[] mGradients;
+
+    private double[] mUnpackedInput;
+
+    private final ActivationFunction mActivationFunction;
+
+    private final WeightInitializer mWeightInitializer;
+
+    private final boolean mHasBiases;
+
+    private final boolean mSoftmax;
+
+    private WeightUpdater mWeightUpdater;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param neuronsCount       The amount of neurons in this layer.
+     * @param inputsCount        The amount of inputs the neurons of this layer have.
+     * @param activationFunction The activation function applied to the outputs of the neurons.
+     * @param weightInitializer  The strategy that draws the initial weights of this layer, which
+     *                           also decides whether the layer has biases.
+     */
+    DenseLayer(int neuronsCount, int inputsCount, ActivationFunction activationFunction,
+               WeightInitializer weightInitializer) {
+        this.mNeuronsCount = neuronsCount;
+        this.mInputsCount = inputsCount;
+        this.mActivationFunction = activationFunction;
+        this.mWeightInitializer = weightInitializer;
+        this.mHasBiases = weightInitializer.usesBiases();
+        this.mSoftmax = activationFunction instanceof SoftmaxActivationFunction;
+        this.mSummedInputs = new double[neuronsCount];
+        this.mOutputs = new double[neuronsCount];
+        this.mErrors = new double[neuronsCount];
+    }
+
+    /**
+     * Creates a layer with the given amount of neurons and inputs.
+     *
+     * @param precision          The precision of the weights of the layer.
+     * @param neuronsCount       The amount of neurons in the layer.
+     * @param inputsCount        The amount of inputs the neurons of the layer have.
+     * @param activationFunction The activation function applied to the outputs of the neurons.
+     * @param weightInitializer  The strategy that draws the initial weights of the layer.
+     * @return The layer.
+     */
+    static DenseLayer create(Precision precision, int neuronsCount, int inputsCount,
+                             ActivationFunction activationFunction, WeightInitializer weightInitializer) {
+        if (precision == Precision.FLOAT) {
+            return new FloatDenseLayer(neuronsCount, inputsCount, activationFunction, weightInitializer);
+        }
+
+        return new DoubleDenseLayer(neuronsCount, inputsCount, activationFunction, weightInitializer);
+    }
+
+    /**
+     * Creates a replica of this layer. The replica shares the weights of this layer, but has its
+     * own outputs, errors and gradients, so that both can process different patterns at the same
+     * time as long as the weights are not modified.
+     *
+     * @return A replica of this layer.
+     */
+    abstract DenseLayer createReplica();
+
+    /**
+     * Creates a copy of this layer with its own weights, outputs, errors and gradients.
+     *
+     * @return A copy of this layer.
+     */
+    abstract DenseLayer copy();
+
+    /**
+     * Replaces the weights of this layer with the ones of another layer of the same shape and
+     * precision, such as a copy of this layer.
+     *
+     * @param layer The layer whose weights are copied.
+     */
+    abstract void copyWeightsFrom(DenseLayer layer);
+
+    /**
+     * Returns the precision of the weights of this layer.
+     *
+     * @return The precision of the weights of this layer.
+     */
+    abstract Precision getPrecision();
+
+    /**
+     * Returns the amount of neurons in this layer.
+     *
+     * @return The amount of neurons in this layer.
+     */
+    int getNeuronsCount() {
+        return mNeuronsCount;
+    }
+
+    /**
+     * Returns the amount of inputs the neurons of this layer have.
+     *
+     * @return The amount of inputs the neurons of this layer have.
+     */
+    int getInputsCount() {
+        return mInputsCount;
+    }
+
+    /**
+     * Returns the amount of weights of this layer, including the biases. The weights of the neuron
+     * j start at the index j * getInputsCount(), and its bias is at the index
+     * getBiasesOffset() + j.
+     *
+     * @return The amount of weights of this layer.
+     */
+    int getWeightsCount() {
+        return mNeuronsCount * mInputsCount + (mHasBiases ? mNeuronsCount : 0);
+    }
+
+    /**
+     * Returns the index of the bias of the first neuron among the weights of this layer.
+     *
+     * @return The offset of the biases of this layer.
+     */
+    int getBiasesOffset() {
+        return mNeuronsCount * mInputsCount;
+    }
+
+    /**
+     * Returns whether the neurons of this layer have biases.
+     *
+     * @return True if this layer has biases.
+     */
+    boolean hasBiases() {
+        return mHasBiases;
+    }
+
+    /**
+     * Returns the strategy that draws the initial weights of this layer.
+     *
+     * @return The weight initializer of this layer.
+     */
+    WeightInitializer getWeightInitializer() {
+        return mWeightInitializer;
+    }
+
+    /**
+     * Returns the sums of the weighted inputs of the neurons, before the activation function, of
+     * the last call to {@link #forward(double[])}. They are needed by the derivatives of the
+     * activation functions that can't be calculated from the outputs alone.
+     *
+     * @return The summed inputs of the neurons of this layer.
+     */
+    double[] getSummedInputs() {
+        return mSummedInputs;
+    }
+
+    /**
+     * Returns the outputs calculated by the last call to {@link #forward(double[])}.
+     *
+     * @return The outputs of the neurons of this layer.
+     */
+    double[] getOutputs() {
+        return mOutputs;
+    }
+
+    /**
+     * Returns the errors calculated by the last call to one of the error computation methods.
+     *
+     * @return The errors of the neurons of this layer.
+     */
+    double[] getErrors() {
+        return mErrors;
+    }
+
+    /**
+     * Returns the activation function applied to the outputs of the neurons of this layer.
+     *
+     * @return The activation function of this layer.
+     */
+    ActivationFunction getActivationFunction() {
+        return mActivationFunction;
+    }
+
+    /**
+     * Returns whether the outputs of this layer are normalized by the softmax, in which case the
+     * layer can only be the output layer of a network and is trained with the cross-entropy loss.
+     *
+     * @return True if this layer uses the softmax activation function.
+     */
+    boolean hasSoftmax() {
+        return mSoftmax;
+    }
+
+    /**
+     * Normalizes the outputs of a sample, after the activation function was applied to each one of
+     * them, when this layer uses the softmax. Otherwise, the outputs are kept.
+     *
+     * @param outputs The array with the outputs of the sample.
+     * @param offset  The index of the output of the first neuron of the sample.
+     */
+    void normalizeOutputs(double[] outputs, int offset) {
+        if (mSoftmax) {
+            SoftmaxActivationFunction.normalize(outputs, offset, mNeuronsCount);
+        }
+    }
+
+    /**
+     * Calculates the outputs of the neurons of this layer. It's done by applying the activation
+     * function over the sum of the multiplication between the inputs and the respective weights of
+     * each neuron.
+     *
+     * @param input The outputs of the previous layer.
+     */
+    abstract void forward(double[] input);
+
+    /**
+     * Calculates the outputs of the neurons of this layer for a packed input. For inputs of 0 and
+     * 1, only the weights of the set bits are added instead of multiplying every input by its
+     * weight. The sums are done in the same order as {@link #forward(double[])}, so the outputs
+     * are the same.
+     *
+     * @param input The packed input of the network.
+     */
+    abstract void forward(BinaryInput input);
+
+    /**
+     * Calculates the outputs of the neurons of this layer for a batch of samples at once, as the
+     * product of the inputs matrix by the transposed weights matrix. The outputs are the same
+     * calculated by {@link #forward(double[])} for each sample. This method does not modify the
+     * state of the layer, so it can be called by many threads at the same time.
+     *
+     * @param inputs       The inputs of the samples, one row of getInputsCount() values per
+     *                     sample.
+     * @param samplesCount The amount of samples.
+     * @param outputs      The array that receives the outputs of the samples, one row of
+     *                     getNeuronsCount() values per sample.
+     */
+    abstract void forwardBatch(double[] inputs, int samplesCount, double[] outputs);
+
+    /**
+     * Calculates the errors of the neurons of this layer as the output layer of the network,
+     * applying the function ej = (dj - xj) * F'(yj), where F' is the derivative of the activation
+     * function. With the softmax, the errors are the gradient of the cross-entropy with respect to
+     * the summed inputs, ej = dj - xj, calculated in a single pass.
+     *
+     * @param expectedOutput The expected outputs of the neurons of this layer.
+     */
+    void computeOutputErrors(double[] expectedOutput) {
+        if (mSoftmax) {
+            for (int j = 0; j < mNeuronsCount; j++) {
+                mErrors[j] = expectedOutput[j] - mOutputs[j];
+            }
+
+            return;
+        }
+
+        for (int j = 0; j < mNeuronsCount; j++) {
+            double output = mOutputs[j];
+            double derivative = mActivationFunction.calculateDerivative(mSummedInputs[j], output);
+            mErrors[j] = (expectedOutput[j] - output) * derivative;
+        }
+    }
+
+    /**
+     * Calculates the errors of the neurons of this layer as an intermediary layer of the network,
+     * using the errors of the next layer weighted by the weights of the connections between them.
+     * The weighted sums of all the neurons are calculated at once by the next layer, in a single
+     * pass over its weights.
+     *
+     * @param nextLayer The layer connected to the outputs of this layer.
+     */
+    void computeHiddenErrors(DenseLayer nextLayer) {
+        nextLayer.computeWeightedErrorSums(mErrors);
+
+        for (int j = 0; j < mNeuronsCount; j++) {
+            mErrors[j] *= mActivationFunction.calculateDerivative(mSummedInputs[j], mOutputs[j]);
+        }
+    }
+
+    /**
+     * Calculates, for every input of this layer, the sum of the errors of the neurons of this
+     * layer weighted by the weights of their connections with the input. Instead of reading a
+     * column of the weights for each input, the weights of each neuron are multiplied by its error
+     * and added to the sums of all the inputs, so the weights are read in the order they are
+     * stored. The sums of each input are still added in the order of the neurons.
+     *
+     * @param sums The array that receives the sums, one per input.
+     */
+    abstract void computeWeightedErrorSums(double[] sums);
+
+    /**
+     * Adjusts the weights of this layer applying the function (wij += n*ej*xi) over every
+     * connection, and (bj += n*ej) over the biases.
+     *
+     * @param input        The inputs used to calculate the current outputs.
+     * @param learningRate The learning rate of the neural network.
+     */
+    abstract void adjustWeights(double[] input, double learningRate);
+
+    /**
+     * Adjusts the weights of this layer for a packed input, applying the function
+     * (wij += n*ej*xi) over every connection, and (bj += n*ej) over the biases. For inputs of 0
+     * and 1, only the weights of the set bits are adjusted.
+     *
+     * @param input        The packed input used to calculate the current outputs.
+     * @param learningRate The learning rate of the neural network.
+     */
+    abstract void adjustWeights(BinaryInput input, double learningRate);
+
+    /**
+     * Adds the weight changes of the current pattern, (ej*xi) for every connection and (ej) for
+     * every bias, to the gradients accumulated since the last call to
+     * {@link #applyGradients(double, int)}.
+     *
+     * @param input The inputs used to calculate the current outputs.
+     */
+    void accumulateGradients(double[] input) {
+        if (mGradients == null) {
+            mGradients = new double[getWeightsCount()];
+        }
+
+        for (int j = 0; j < mNeuronsCount; j++) {
+            KERNELS.axpy(mErrors[j], input, 0, mGradients, j * mInputsCount, mInputsCount);
+        }
+
+        accumulateBiasGradients();
+    }
+
+    /**
+     * Adds the weight changes of the current pattern, (ej*xi) for every connection, to the
+     * gradients accumulated since the last call to {@link #applyGradients(double, int)}, for a packed
+     * input.
+     *
+     * @param input The packed input used to calculate the current outputs.
+     */
+    void accumulateGradients(BinaryInput input) {
+        if (!input.isUnsigned()) {
+            accumulateGradients(unpack(input));
+            return;
+        }
+
+        if (mGradients == null) {
+            mGradients = new double[getWeightsCount()];
+        }
+
+        long[] words = input.getWords();
+
+        for (int j = 0; j < mNeuronsCount; j++) {
+            int offset = j * mInputsCount;
+            double error = mErrors[j];
+
+            for (int w = 0; w < words.length; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    mGradients[offset + (w << 6) + Long.numberOfTrailingZeros(bits)] += error;
+                }
+            }
+        }
+
+        accumulateBiasGradients();
+    }
+
+    /**
+     * Adds the errors of the neurons to the gradients of their biases, if this layer has them.
+     */
+    private void accumulateBiasGradients() {
+        if (!mHasBiases) {
+            return;
+        }
+
+        int biasesOffset = getBiasesOffset();
+
+        for (int j = 0; j < mNeuronsCount; j++) {
+            mGradients[biasesOffset + j] += mErrors[j];
+        }
+    }
+
+    /**
+     * Unpacks an input into a buffer of this layer that is reused by every call, so that inputs
+     * whose levels are not 0 and 1 go through the same multiply-add loops as the unpacked inputs.
+     * Unpacking the input once per layer costs much less than decoding the bit of every weight.
+     *
+     * @param input The packed input.
+     * @return The buffer with the values of the input. It is overwritten by the next call.
+     */
+    double[] unpack(BinaryInput input) {
+        if (mUnpackedInput == null) {
+            mUnpackedInput = new double[mInputsCount];
+        }
+
+        long[] words = input.getWords();
+        double lowValue = input.getLowValue();
+        double highValue = input.getHighValue();
+
+        for (int i = 0; i < mInputsCount; i++) {
+            mUnpackedInput[i] = ((words[i >>> 6] >>> i) & 1) != 0 ? highValue : lowValue;
+        }
+
+        return mUnpackedInput;
+    }
+
+    /**
+     * Returns the gradients accumulated since they were last applied or cleared.
+     *
+     * @return The accumulated gradients, or null if no gradient has been accumulated yet.
+     */
+    double[] getGradients() {
+        return mGradients;
+    }
+
+    /**
+     * Returns the state of the optimizer of this layer.
+     *
+     * @return The weight updater of this layer, or null if the weights are updated by plain
+     * gradient descent.
+     */
+    WeightUpdater getWeightUpdater() {
+        return mWeightUpdater;
+    }
+
+    /**
+     * Sets the state of the optimizer of this layer, which turns the gradients into the changes of
+     * the weights.
+     *
+     * @param weightUpdater The weight updater of this layer, or null to update the weights by
+     *                      plain gradient descent.
+     */
+    void setWeightUpdater(WeightUpdater weightUpdater) {
+        this.mWeightUpdater = weightUpdater;
+    }
+
+    /**
+     * Adjusts the weights of this layer with the accumulated gradients and clears the gradients
+     * for the next batch.
+     *
+     * @param learningRate The learning rate of the neural network.
+     * @param updatesCount The number of this update since the training started, starting at 1.
+     * @see #applyGradients(double[], int, int, double, int)
+     */
+    void applyGradients(double learningRate, int updatesCount) {
+        if (mGradients == null) {
+            return;
+        }
+
+        applyGradients(mGradients, 0, mGradients.length, learningRate, updatesCount);
+
+        for (int i = 0; i < mGradients.length; i++) {
+            mGradients[i] = 0;
+        }
+    }
+
+    /**
+     * Adjusts a range of the weights of this layer with their gradients. Without a weight
+     * updater, this applies the function (wi += n*gi) over the range. Otherwise, the gradients are
+     * turned into the changes of the weights by the updater first, which overwrites them.
+     *
+     * @param gradients    The gradients of the weights, indexed as the weights.
+     * @param start        The index of the first weight of the range.
+     * @param end          The index after the last weight of the range.
+     * @param learningRate The learning rate of the neural network.
+     * @param updatesCount The number of this update since the training started, starting at 1.
+     */
+    void applyGradients(double[] gradients, int start, int end, double learningRate, int updatesCount) {
+        if (mWeightUpdater == null) {
+            addToWeights(gradients, start, end, learningRate);
+            return;
+        }
+
+        mWeightUpdater.computeChanges(gradients, start, end, learningRate, updatesCount);
+        addToWeights(gradients, start, end, 1);
+    }
+
+    /**
+     * Applies the function (wi += n*gi) over a range of the weights of this layer.
+     *
+     * @param gradients    The gradients of the weights, indexed as the weights.
+     * @param start        The index of the first weight of the range.
+     * @param end          The index after the last weight of the range.
+     * @param learningRate The learning rate of the neural network.
+     */
+    abstract void addToWeights(double[] gradients, int start, int end, double learningRate);
+
+    /**
+     * Calculates the loss of this layer as the output layer of the network for the current
+     * outputs.
+     *
+     * @param expectedOutput The expected outputs of the neurons of this layer.
+     * @return The loss of this layer.
+     * @see #getLoss(double[], int, double[], int)
+     */
+    double getLoss(double[] expectedOutput) {
+        return getLoss(expectedOutput, 0, mOutputs, 0);
+    }
+
+    /**
+     * Calculates the loss of this layer as the output layer of the network for the outputs of a
+     * sample. It is the mean squared error, applying the function 1/2*sum((dj - xj)^2) over all the
+     * neurons of this layer, or the cross-entropy, applying the function -sum(dj * ln(xj)), when
+     * this layer uses the softmax. The outputs are kept above 0 in the logarithm, so a wrong
+     * output that underflowed gives a large but finite loss.
+     *
+     * @param expectedOutputs The array with the expected outputs of the sample.
+     * @param expectedOffset  The index of the expected output of the first neuron of the sample.
+     * @param outputs         The array with the outputs of the sample.
+     * @param outputsOffset   The index of the output of the first neuron of the sample.
+     * @return The loss of this layer for the sample.
+     */
+    double getLoss(double[] expectedOutputs, int expectedOffset, double[] outputs, int outputsOffset) {
+        if (mSoftmax) {
+            double crossEntropy = 0;
+
+            for (int j = 0; j < mNeuronsCount; j++) {
+                double expected = expectedOutputs[expectedOffset + j];
+
+                if (expected != 0) {
+                    crossEntropy -= expected * Math.log(Math.max(outputs[outputsOffset + j], Double.MIN_VALUE));
+                }
+            }
+
+            return crossEntropy;
+        }
+
+        double mse = 0, diff;
+
+        for (int j = 0; j < mNeuronsCount; j++) {
+            diff = expectedOutputs[expectedOffset + j] - outputs[outputsOffset + j];
+            mse += diff * diff;
+        }
+
+        return 0.5 * mse;
+    }
+
+    /**
+     * Assigns random weights to the connections of this layer, drawn by its weight initializer,
+     * and zeroes its biases.
+     *
+     * @param random The random number generator the weights are drawn from.
+     */
+    void resetWeights(Random random) {
+        for (int j = 0; j < mNeuronsCount; j++) {
+            int offset = j * mInputsCount;
+
+            for (int i = 0; i < mInputsCount; i++) {
+                setWeight(offset + i, mWeightInitializer.nextWeight(random, mInputsCount, mNeuronsCount));
+            }
+        }
+
+        if (mHasBiases) {
+            for (int j = 0; j < mNeuronsCount; j++) {
+                setWeight(getBiasesOffset() + j, 0);
+            }
+        }
+    }
+
+    /**
+     * Sets one of the weights of this layer, rounding it to the precision of the layer.
+     *
+     * @param index  The index of the weight.
+     * @param weight The new value of the weight.
+     */
+    abstract void setWeight(int index, double weight);
+
+    /**
+     * Reads all the weights of this layer from the buffer, advancing its position.
+     *
+     * @param buffer    The buffer with the weights.
+     * @param precision The precision in which the weights are stored in the buffer, which is
+     *                  converted to the precision of this layer if needed.
+     */
+    abstract void readWeights(ByteBuffer buffer, Precision precision);
+
+    /**
+     * Writes all the weights of this layer to the channel, in the precision of this layer.
+     *
+     * @param channel The channel that receives the weights.
+     * @throws IOException If the channel could not be written.
+     */
+    abstract void writeWeights(WritableByteChannel channel) throws IOException;
+}
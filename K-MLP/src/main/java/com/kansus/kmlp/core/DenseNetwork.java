@@ -0,0 +1,602 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.activation.ActivationFunction;
+import com.kansus.kmlp.activation.ActivationFunctions;
+import com.kansus.kmlp.initialization.WeightInitializer;
+import com.kansus.kmlp.initialization.WeightInitializers;
+import com.kansus.kmlp.model.BinaryInput;
+import com.kansus.kmlp.model.Pattern;
+import com.kansus.kmlp.optimizer.Optimizer;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Flat implementation of the layers of a multilayer perceptron. Instead of walking a graph of
+ * neuron objects, every layer keeps its weights in one contiguous array and its outputs and errors
+ * in reusable buffers, so a pattern can be propagated through the network without copying inputs
+ * into every neuron.
+ */
+class DenseNetwork {
+
+    /**
+     * The maximum amount of samples that go through the layers together in a batch evaluation,
+     * which bounds the memory used by the intermediary outputs.
+     */
+    private static final int EVALUATION_BATCH_SIZE = 64;
+
+    private final int mInputsCount;
+
+    private final Precision mPrecision;
+
+    private final DenseLayer[] mLayers;
+
+    private Optimizer mOptimizer;
+
+    private int mUpdatesCount;
+
+    /**
+     * Constructor of this class. All the layers use the default activation function.
+     *
+     * @param precision  The precision of the weights of the network.
+     * @param layerSizes The amount of neurons in each layer, starting with the input layer.
+     */
+    DenseNetwork(Precision precision, int... layerSizes) {
+        this(precision, defaultActivationFunctions(layerSizes.length - 1), layerSizes);
+    }
+
+    /**
+     * Constructor of this class. All the layers use the legacy weight initialization, without
+     * biases.
+     *
+     * @param precision           The precision of the weights of the network.
+     * @param activationFunctions The activation function of each layer, except the input layer.
+     * @param layerSizes          The amount of neurons in each layer, starting with the input
+     *                            layer.
+     */
+    DenseNetwork(Precision precision, ActivationFunction[] activationFunctions, int... layerSizes) {
+        this(precision, activationFunctions, legacyWeightInitializers(layerSizes.length - 1), layerSizes);
+    }
+
+    /**
+     * Constructor of this class.
+     *
+     * @param precision           The precision of the weights of the network.
+     * @param activationFunctions The activation function of each layer, except the input layer.
+     * @param weightInitializers  The weight initializer of each layer, except the input layer,
+     *                            which also decides whether the layer has biases.
+     * @param layerSizes          The amount of neurons in each layer, starting with the input
+     *                            layer.
+     */
+    DenseNetwork(Precision precision, ActivationFunction[] activationFunctions,
+                 WeightInitializer[] weightInitializers, int... layerSizes) {
+        if (activationFunctions.length != layerSizes.length - 1) {
+            throw new IllegalArgumentException("Expected " + (layerSizes.length - 1)
+                    + " activation functions, but got " + activationFunctions.length + ".");
+        }
+
+        if (weightInitializers.length != layerSizes.length - 1) {
+            throw new IllegalArgumentException("Expected " + (layerSizes.length - 1)
+                    + " weight initializers, but got " + weightInitializers.length + ".");
+        }
+
+        this.mInputsCount = layerSizes[0];
+        this.mPrecision = precision;
+        this.mLayers = new DenseLayer[layerSizes.length - 1];
+
+        for (int i = 1; i < layerSizes.length; i++) {
+            mLayers[i - 1] = DenseLayer.create(precision, layerSizes[i], layerSizes[i - 1],
+                    activationFunctions[i - 1], weightInitializers[i - 1]);
+
+            if (i < layerSizes.length - 1 && mLayers[i - 1].hasSoftmax()) {
+                throw new IllegalArgumentException("Only the output layer can use the softmax, but the layer "
+                        + i + " uses it.");
+            }
+        }
+    }
+
+    private static ActivationFunction[] defaultActivationFunctions(int layersCount) {
+        ActivationFunction[] activationFunctions = new ActivationFunction[layersCount];
+        Arrays.fill(activationFunctions, ActivationFunctions.DEFAULT);
+        return activationFunctions;
+    }
+
+    private static WeightInitializer[] legacyWeightInitializers(int layersCount) {
+        WeightInitializer[] weightInitializers = new WeightInitializer[layersCount];
+        Arrays.fill(weightInitializers, WeightInitializers.LEGACY);
+        return weightInitializers;
+    }
+
+    /**
+     * Creates a network with the given layers.
+     *
+     * @param inputsCount The amount of inputs of the network.
+     * @param precision   The precision of the weights of the layers.
+     * @param layers      The layers of the network, except the input layer.
+     */
+    private DenseNetwork(int inputsCount, Precision precision, DenseLayer[] layers) {
+        this.mInputsCount = inputsCount;
+        this.mPrecision = precision;
+        this.mLayers = layers;
+    }
+
+    /**
+     * Creates a replica of this network whose layers share the weights of the layers of this
+     * network, but have their own outputs, errors and gradients.
+     *
+     * @return A replica of this network.
+     * @see DenseLayer#createReplica()
+     */
+    DenseNetwork createReplica() {
+        DenseLayer[] layers = new DenseLayer[mLayers.length];
+
+        for (int i = 0; i < mLayers.length; i++) {
+            layers[i] = mLayers[i].createReplica();
+        }
+
+        return new DenseNetwork(mInputsCount, mPrecision, layers);
+    }
+
+    /**
+     * Creates a copy of this network with its own weights, outputs, errors and gradients.
+     *
+     * @return A copy of this network.
+     */
+    DenseNetwork copy() {
+        DenseLayer[] layers = new DenseLayer[mLayers.length];
+
+        for (int i = 0; i < mLayers.length; i++) {
+            layers[i] = mLayers[i].copy();
+        }
+
+        return new DenseNetwork(mInputsCount, mPrecision, layers);
+    }
+
+    /**
+     * Replaces the weights of this network with the ones of another network of the same topology
+     * and precision, such as a copy of this network. The state of the optimizer is kept.
+     *
+     * @param network The network whose weights are copied.
+     */
+    void copyWeightsFrom(DenseNetwork network) {
+        for (int i = 0; i < mLayers.length; i++) {
+            mLayers[i].copyWeightsFrom(network.mLayers[i]);
+        }
+    }
+
+    /**
+     * Returns the precision of the weights of this network.
+     *
+     * @return The precision of the weights of this network.
+     */
+    Precision getPrecision() {
+        return mPrecision;
+    }
+
+    /**
+     * Returns the amount of neurons in each layer of this network, starting with the input layer.
+     *
+     * @return The amount of neurons in each layer of this network.
+     */
+    int[] getLayerSizes() {
+        int[] layerSizes = new int[mLayers.length + 1];
+        layerSizes[0] = mInputsCount;
+
+        for (int i = 0; i < mLayers.length; i++) {
+            layerSizes[i + 1] = mLayers[i].getNeuronsCount();
+        }
+
+        return layerSizes;
+    }
+
+    /**
+     * Sets the optimizer that updates the weights of this network with the accumulated gradients,
+     * giving every layer a new state of the optimizer.
+     *
+     * @param optimizer The optimizer.
+     */
+    void setOptimizer(Optimizer optimizer) {
+        this.mOptimizer = optimizer;
+        resetOptimizer();
+    }
+
+    /**
+     * Returns whether the optimizer of this network keeps a state between the updates of the
+     * weights, in which case the weights can only be updated through the accumulated gradients.
+     *
+     * @return Whether the layers of this network have weight updaters.
+     */
+    boolean hasWeightUpdaters() {
+        return mLayers[0].getWeightUpdater() != null;
+    }
+
+    /**
+     * Discards the state of the optimizer of every layer, as in the beginning of a training.
+     */
+    private void resetOptimizer() {
+        mUpdatesCount = 0;
+
+        if (mOptimizer == null) {
+            return;
+        }
+
+        for (DenseLayer layer : mLayers) {
+            layer.setWeightUpdater(mOptimizer.createWeightUpdater(layer.getWeightsCount()));
+        }
+    }
+
+    /**
+     * Counts a new update of the weights of this network with the accumulated gradients.
+     *
+     * @return The number of the new update since the training started, starting at 1.
+     */
+    int nextUpdate() {
+        return ++mUpdatesCount;
+    }
+
+    /**
+     * Returns the amount of updates of the weights with the accumulated gradients since the
+     * training started.
+     *
+     * @return The amount of updates done.
+     */
+    int getUpdatesCount() {
+        return mUpdatesCount;
+    }
+
+    /**
+     * Sets the amount of updates done, when a training is resumed from a checkpoint.
+     *
+     * @param updatesCount The amount of updates done.
+     */
+    void setUpdatesCount(int updatesCount) {
+        this.mUpdatesCount = updatesCount;
+    }
+
+    /**
+     * Returns the activation function of each layer of this network, except the input layer.
+     *
+     * @return The activation functions of the layers of this network.
+     */
+    ActivationFunction[] getActivationFunctions() {
+        ActivationFunction[] activationFunctions = new ActivationFunction[mLayers.length];
+
+        for (int i = 0; i < mLayers.length; i++) {
+            activationFunctions[i] = mLayers[i].getActivationFunction();
+        }
+
+        return activationFunctions;
+    }
+
+    /**
+     * Returns the weight initializer of each layer of this network, except the input layer.
+     *
+     * @return The weight initializers of the layers of this network.
+     */
+    WeightInitializer[] getWeightInitializers() {
+        WeightInitializer[] weightInitializers = new WeightInitializer[mLayers.length];
+
+        for (int i = 0; i < mLayers.length; i++) {
+            weightInitializers[i] = mLayers[i].getWeightInitializer();
+        }
+
+        return weightInitializers;
+    }
+
+    /**
+     * Returns the amount of weights of all the layers of this network, including the biases.
+     *
+     * @return The amount of weights of this network.
+     */
+    int getWeightsCount() {
+        int weightsCount = 0;
+
+        for (DenseLayer layer : mLayers) {
+            weightsCount += layer.getWeightsCount();
+        }
+
+        return weightsCount;
+    }
+
+    /**
+     * Returns the amount of inputs of this network.
+     *
+     * @return The amount of inputs of this network.
+     */
+    int getInputsCount() {
+        return mInputsCount;
+    }
+
+    /**
+     * Returns the amount of layers with weights in this network, that is, all the layers except
+     * the input layer.
+     *
+     * @return The amount of layers with weights in this network.
+     */
+    int getLayersCount() {
+        return mLayers.length;
+    }
+
+    /**
+     * Returns the layer at the specified index. The index 0 is the first layer after the input
+     * layer.
+     *
+     * @param index The index of the layer.
+     * @return The layer at the specified index.
+     */
+    DenseLayer getLayer(int index) {
+        return mLayers[index];
+    }
+
+    /**
+     * Returns the output layer of this network.
+     *
+     * @return The output layer of this network.
+     */
+    DenseLayer getOutputLayer() {
+        return mLayers[mLayers.length - 1];
+    }
+
+    /**
+     * Performs the forward phase over all the layers of this network.
+     *
+     * @param input The data to be inputted.
+     * @return The buffer with the outputs of the output layer. It is overwritten by the next call.
+     */
+    double[] forward(double[] input) {
+        mLayers[0].forward(input);
+        return forwardHiddenLayers();
+    }
+
+    /**
+     * Performs the forward phase over all the layers of this network for a packed input.
+     *
+     * @param input The packed data to be inputted.
+     * @return The buffer with the outputs of the output layer. It is overwritten by the next call.
+     * @see DenseLayer#forward(BinaryInput)
+     */
+    double[] forward(BinaryInput input) {
+        mLayers[0].forward(input);
+        return forwardHiddenLayers();
+    }
+
+    /**
+     * Performs the forward phase over the data of a pattern, using its packed data if it has any.
+     *
+     * @param pattern The pattern to be inputted.
+     * @return The buffer with the outputs of the output layer. It is overwritten by the next call.
+     */
+    double[] forward(Pattern pattern) {
+        BinaryInput binaryData = pattern.getBinaryData();
+        return binaryData != null ? forward(binaryData) : forward(pattern.getData());
+    }
+
+    private double[] forwardHiddenLayers() {
+        for (int i = 1; i < mLayers.length; i++) {
+            mLayers[i].forward(mLayers[i - 1].getOutputs());
+        }
+
+        return getOutputLayer().getOutputs();
+    }
+
+    /**
+     * Performs the forward phase over all the layers of this network for a batch of samples at
+     * once.
+     *
+     * @param inputs       The data of the samples, one row of getInputsCount() values per sample.
+     * @param samplesCount The amount of samples.
+     * @return The outputs of the output layer, one row per sample.
+     * @see DenseLayer#forwardBatch(double[], int, double[])
+     */
+    double[] forwardBatch(double[] inputs, int samplesCount) {
+        double[] layerInputs = inputs;
+
+        for (DenseLayer layer : mLayers) {
+            double[] layerOutputs = new double[samplesCount * layer.getNeuronsCount()];
+            layer.forwardBatch(layerInputs, samplesCount, layerOutputs);
+            layerInputs = layerOutputs;
+        }
+
+        return layerInputs;
+    }
+
+    /**
+     * Evaluates many samples by running them through the layers in batches of a limited size. This
+     * method only reads the weights, so it can be called by many threads at the same time.
+     *
+     * @param inputs The data of the samples, one array per sample.
+     * @return The outputs of the output layer, one array per sample.
+     */
+    double[][] evaluateBatch(double[][] inputs) {
+        int outputsCount = getOutputLayer().getNeuronsCount();
+        double[][] outputs = new double[inputs.length][];
+        double[] batch = new double[Math.min(inputs.length, EVALUATION_BATCH_SIZE) * mInputsCount];
+
+        for (int from = 0; from < inputs.length; from += EVALUATION_BATCH_SIZE) {
+            int samplesCount = Math.min(EVALUATION_BATCH_SIZE, inputs.length - from);
+
+            for (int s = 0; s < samplesCount; s++) {
+                System.arraycopy(inputs[from + s], 0, batch, s * mInputsCount, mInputsCount);
+            }
+
+            double[] batchOutputs = forwardBatch(batch, samplesCount);
+
+            for (int s = 0; s < samplesCount; s++) {
+                outputs[from + s] = Arrays.copyOfRange(batchOutputs, s * outputsCount, (s + 1) * outputsCount);
+            }
+        }
+
+        return outputs;
+    }
+
+    /**
+     * Evaluates many samples stored in a single matrix by running them through the layers in
+     * batches of a limited size. This method only reads the weights, so it can be called by many
+     * threads at the same time.
+     *
+     * @param inputs       The data of the samples, one row of getInputsCount() values per sample.
+     * @param samplesCount The amount of samples.
+     * @return The outputs of the output layer, one row per sample.
+     */
+    double[] evaluateBatch(double[] inputs, int samplesCount) {
+        int outputsCount = getOutputLayer().getNeuronsCount();
+        double[] outputs = new double[samplesCount * outputsCount];
+
+        for (int from = 0; from < samplesCount; from += EVALUATION_BATCH_SIZE) {
+            int count = Math.min(EVALUATION_BATCH_SIZE, samplesCount - from);
+            double[] batch = Arrays.copyOfRange(inputs, from * mInputsCount, (from + count) * mInputsCount);
+            double[] batchOutputs = forwardBatch(batch, count);
+            System.arraycopy(batchOutputs, 0, outputs, from * outputsCount, batchOutputs.length);
+        }
+
+        return outputs;
+    }
+
+    /**
+     * Calculates the errors of all the layers of this network, starting from the output layer.
+     *
+     * @param expectedOutput The expected outputs of the output layer.
+     */
+    void computeErrors(double[] expectedOutput) {
+        getOutputLayer().computeOutputErrors(expectedOutput);
+
+        for (int i = mLayers.length - 2; i >= 0; i--) {
+            mLayers[i].computeHiddenErrors(mLayers[i + 1]);
+        }
+    }
+
+    /**
+     * Adjusts the weights of all the layers of this network, from the output layer to the first
+     * hidden layer, using the errors calculated by {@link #computeErrors(double[])}.
+     *
+     * @param input        The data used in the last forward phase.
+     * @param learningRate The learning rate of the neural network.
+     */
+    void adjustWeights(double[] input, double learningRate) {
+        adjustHiddenWeights(learningRate);
+        mLayers[0].adjustWeights(input, learningRate);
+    }
+
+    /**
+     * Adjusts the weights of all the layers of this network for a packed input.
+     *
+     * @param input        The packed data used in the last forward phase.
+     * @param learningRate The learning rate of the neural network.
+     * @see #adjustWeights(double[], double)
+     */
+    void adjustWeights(BinaryInput input, double learningRate) {
+        adjustHiddenWeights(learningRate);
+        mLayers[0].adjustWeights(input, learningRate);
+    }
+
+    /**
+     * Adjusts the weights of all the layers of this network for the data of a pattern, using its
+     * packed data if it has any.
+     *
+     * @param pattern      The pattern used in the last forward phase.
+     * @param learningRate The learning rate of the neural network.
+     * @see #adjustWeights(double[], double)
+     */
+    void adjustWeights(Pattern pattern, double learningRate) {
+        BinaryInput binaryData = pattern.getBinaryData();
+
+        if (binaryData != null) {
+            adjustWeights(binaryData, learningRate);
+        } else {
+            adjustWeights(pattern.getData(), learningRate);
+        }
+    }
+
+    private void adjustHiddenWeights(double learningRate) {
+        for (int i = mLayers.length - 1; i > 0; i--) {
+            mLayers[i].adjustWeights(mLayers[i - 1].getOutputs(), learningRate);
+        }
+    }
+
+    /**
+     * Accumulates the weight changes of the current pattern in all the layers of this network,
+     * without modifying the weights.
+     *
+     * @param input The data used in the last forward phase.
+     */
+    void accumulateGradients(double[] input) {
+        accumulateHiddenGradients();
+        mLayers[0].accumulateGradients(input);
+    }
+
+    /**
+     * Accumulates the weight changes of the current pattern in all the layers of this network for
+     * a packed input.
+     *
+     * @param input The packed data used in the last forward phase.
+     * @see #accumulateGradients(double[])
+     */
+    void accumulateGradients(BinaryInput input) {
+        accumulateHiddenGradients();
+        mLayers[0].accumulateGradients(input);
+    }
+
+    /**
+     * Accumulates the weight changes of the current pattern in all the layers of this network for
+     * the data of a pattern, using its packed data if it has any.
+     *
+     * @param pattern The pattern used in the last forward phase.
+     * @see #accumulateGradients(double[])
+     */
+    void accumulateGradients(Pattern pattern) {
+        accumulateHiddenGradients();
+        BinaryInput binaryData = pattern.getBinaryData();
+
+        if (binaryData != null) {
+            mLayers[0].accumulateGradients(binaryData);
+        } else {
+            mLayers[0].accumulateGradients(pattern.getData());
+        }
+    }
+
+    private void accumulateHiddenGradients() {
+        for (int i = mLayers.length - 1; i > 0; i--) {
+            mLayers[i].accumulateGradients(mLayers[i - 1].getOutputs());
+        }
+    }
+
+    /**
+     * Adjusts the weights of all the layers of this network with the gradients accumulated by
+     * {@link #accumulateGradients(double[])}.
+     *
+     * @param learningRate The learning rate of the neural network.
+     */
+    void applyGradients(double learningRate) {
+        int updatesCount = nextUpdate();
+
+        for (DenseLayer layer : mLayers) {
+            layer.applyGradients(learningRate, updatesCount);
+        }
+    }
+
+    /**
+     * Returns the loss of the output layer of this network, which is the mean squared error, or
+     * the cross-entropy when the output layer uses the softmax.
+     *
+     * @param expectedOutput The expected outputs of the output layer.
+     * @return The loss of the output layer of this network.
+     */
+    double getLoss(double[] expectedOutput) {
+        return getOutputLayer().getLoss(expectedOutput);
+    }
+
+    /**
+     * Resets the weights of all the layers of this network by assigning them random values, and
+     * the state of the optimizer. All the layers draw their weights from the same generator, so
+     * the same seed always gives the same weights.
+     *
+     * @param random The random number generator the weights are drawn from.
+     */
+    void resetWeights(Random random) {
+        for (DenseLayer layer : mLayers) {
+            layer.resetWeights(random);
+        }
+
+        resetOptimizer();
+    }
+}
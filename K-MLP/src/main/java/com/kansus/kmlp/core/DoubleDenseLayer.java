@@ -0,0 +1,297 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.Utils;
+import com.kansus.kmlp.activation.ActivationFunction;
+import com.kansus.kmlp.initialization.WeightInitializer;
+import com.kansus.kmlp.model.BinaryInput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * A fully connected layer that keeps its weights in double precision.
+ */
+class DoubleDenseLayer extends DenseLayer {
+
+    private final double[] mWeights;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param neuronsCount       The amount of neurons in this layer.
+     * @param inputsCount        The amount of inputs the neurons of this layer have.
+     * @param activationFunction The activation function applied to the outputs of the neurons.
+     * @param weightInitializer  The strategy that draws the initial weights of this layer.
+     */
+    DoubleDenseLayer(int neuronsCount, int inputsCount, ActivationFunction activationFunction,
+            WeightInitializer weightInitializer) {
+        this(neuronsCount, inputsCount, activationFunction, weightInitializer,
+                new double[neuronsCount * inputsCount + (weightInitializer.usesBiases() ? neuronsCount : 0)]);
+    }
+
+    private DoubleDenseLayer(int neuronsCount, int inputsCount, ActivationFunction activationFunction,
+            WeightInitializer weightInitializer, double[] weights) {
+        super(neuronsCount, inputsCount, activationFunction, weightInitializer);
+        this.mWeights = weights;
+    }
+
+    @Override
+    DenseLayer createReplica() {
+        return new DoubleDenseLayer(getNeuronsCount(), getInputsCount(), getActivationFunction(), getWeightInitializer(),
+                mWeights);
+    }
+
+    @Override
+    DenseLayer copy() {
+        return new DoubleDenseLayer(getNeuronsCount(), getInputsCount(), getActivationFunction(), getWeightInitializer(),
+                mWeights.clone());
+    }
+
+    @Override
+    void copyWeightsFrom(DenseLayer layer) {
+        double[] weights = ((DoubleDenseLayer) layer).mWeights;
+        System.arraycopy(weights, 0, mWeights, 0, mWeights.length);
+    }
+
+    @Override
+    Precision getPrecision() {
+        return Precision.DOUBLE;
+    }
+
+    @Override
+    void forward(double[] input) {
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        double[] summedInputs = getSummedInputs();
+        double[] outputs = getOutputs();
+        ActivationFunction activationFunction = getActivationFunction();
+
+        for (int j = 0; j < neuronsCount; j++) {
+            double dotProductSum = KERNELS.dot(input, 0, mWeights, j * inputsCount, inputsCount);
+            summedInputs[j] = getSummedInput(dotProductSum, j);
+            outputs[j] = activationFunction.calculateOutput(summedInputs[j]);
+        }
+
+        normalizeOutputs(outputs, 0);
+    }
+
+    @Override
+    void forward(BinaryInput input) {
+        if (!input.isUnsigned()) {
+            forward(unpack(input));
+            return;
+        }
+
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        double[] summedInputs = getSummedInputs();
+        double[] outputs = getOutputs();
+        ActivationFunction activationFunction = getActivationFunction();
+        long[] words = input.getWords();
+
+        for (int j = 0; j < neuronsCount; j++) {
+            int offset = j * inputsCount;
+            double dotProductSum = 0;
+
+            for (int w = 0; w < words.length; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    dotProductSum += mWeights[offset + (w << 6) + Long.numberOfTrailingZeros(bits)];
+                }
+            }
+
+            summedInputs[j] = getSummedInput(dotProductSum, j);
+            outputs[j] = activationFunction.calculateOutput(summedInputs[j]);
+        }
+
+        normalizeOutputs(outputs, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The weights of a block of neurons are kept in cache while they are multiplied by all the
+     * samples, and every weight read is used by four samples, so the cost is bound by the memory
+     * bandwidth instead of the reads of the weights.
+     */
+    @Override
+    void forwardBatch(double[] inputs, int samplesCount, double[] outputs) {
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        ActivationFunction activationFunction = getActivationFunction();
+
+        for (int firstNeuron = 0; firstNeuron < neuronsCount; firstNeuron += BATCH_NEURONS_BLOCK) {
+            int lastNeuron = Math.min(firstNeuron + BATCH_NEURONS_BLOCK, neuronsCount);
+            int s = 0;
+
+            for (; s + 3 < samplesCount; s += 4) {
+                int input0 = s * inputsCount;
+                int input1 = input0 + inputsCount;
+                int input2 = input1 + inputsCount;
+                int input3 = input2 + inputsCount;
+
+                for (int j = firstNeuron; j < lastNeuron; j++) {
+                    int offset = j * inputsCount;
+                    double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+
+                    for (int i = 0; i < inputsCount; i++) {
+                        double weight = mWeights[offset + i];
+                        sum0 += (inputs[input0 + i] * weight);
+                        sum1 += (inputs[input1 + i] * weight);
+                        sum2 += (inputs[input2 + i] * weight);
+                        sum3 += (inputs[input3 + i] * weight);
+                    }
+
+                    outputs[s * neuronsCount + j] = activationFunction.calculateOutput(getSummedInput(sum0, j));
+                    outputs[(s + 1) * neuronsCount + j] = activationFunction.calculateOutput(getSummedInput(sum1, j));
+                    outputs[(s + 2) * neuronsCount + j] = activationFunction.calculateOutput(getSummedInput(sum2, j));
+                    outputs[(s + 3) * neuronsCount + j] = activationFunction.calculateOutput(getSummedInput(sum3, j));
+                }
+            }
+
+            for (; s < samplesCount; s++) {
+                int input = s * inputsCount;
+
+                for (int j = firstNeuron; j < lastNeuron; j++) {
+                    int offset = j * inputsCount;
+                    double sum = 0;
+
+                    for (int i = 0; i < inputsCount; i++) {
+                        sum += (inputs[input + i] * mWeights[offset + i]);
+                    }
+
+                    outputs[s * neuronsCount + j] = activationFunction.calculateOutput(getSummedInput(sum, j));
+                }
+            }
+        }
+
+        if (hasSoftmax()) {
+            for (int s = 0; s < samplesCount; s++) {
+                normalizeOutputs(outputs, s * neuronsCount);
+            }
+        }
+    }
+
+    /**
+     * Returns the summed input of a neuron, adding its bias to the weighted sum of its inputs, or
+     * dividing the weighted sum by twice the amount of neurons when this layer has no biases.
+     *
+     * @param dotProductSum The weighted sum of the inputs of the neuron.
+     * @param neuron        The index of the neuron.
+     * @return The summed input of the neuron.
+     */
+    private double getSummedInput(double dotProductSum, int neuron) {
+        if (hasBiases()) {
+            return dotProductSum + mWeights[getBiasesOffset() + neuron];
+        }
+
+        return dotProductSum / (getNeuronsCount() * 2);
+    }
+
+    @Override
+    void computeWeightedErrorSums(double[] sums) {
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        double[] errors = getErrors();
+
+        Arrays.fill(sums, 0, inputsCount, 0);
+
+        for (int k = 0; k < neuronsCount; k++) {
+            KERNELS.axpy(errors[k], mWeights, k * inputsCount, sums, 0, inputsCount);
+        }
+    }
+
+    @Override
+    void adjustWeights(double[] input, double learningRate) {
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        double[] errors = getErrors();
+
+        for (int j = 0; j < neuronsCount; j++) {
+            KERNELS.axpy(learningRate * errors[j], input, 0, mWeights, j * inputsCount, inputsCount);
+        }
+
+        adjustBiases(learningRate);
+    }
+
+    @Override
+    void adjustWeights(BinaryInput input, double learningRate) {
+        if (!input.isUnsigned()) {
+            adjustWeights(unpack(input), learningRate);
+            return;
+        }
+
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        double[] errors = getErrors();
+        long[] words = input.getWords();
+
+        for (int j = 0; j < neuronsCount; j++) {
+            int offset = j * inputsCount;
+            double delta = learningRate * errors[j];
+
+            for (int w = 0; w < words.length; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    mWeights[offset + (w << 6) + Long.numberOfTrailingZeros(bits)] += delta;
+                }
+            }
+        }
+
+        adjustBiases(learningRate);
+    }
+
+    /**
+     * Adjusts the biases of this layer applying the function (bj += n*ej), if it has them.
+     *
+     * @param learningRate The learning rate of the neural network.
+     */
+    private void adjustBiases(double learningRate) {
+        if (!hasBiases()) {
+            return;
+        }
+
+        int neuronsCount = getNeuronsCount();
+        int biasesOffset = getBiasesOffset();
+        double[] errors = getErrors();
+
+        for (int j = 0; j < neuronsCount; j++) {
+            mWeights[biasesOffset + j] += (learningRate * errors[j]);
+        }
+    }
+
+    @Override
+    void addToWeights(double[] gradients, int start, int end, double learningRate) {
+        KERNELS.axpy(learningRate, gradients, start, mWeights, start, end - start);
+    }
+
+    @Override
+    void setWeight(int index, double weight) {
+        mWeights[index] = weight;
+    }
+
+    @Override
+    void readWeights(ByteBuffer buffer, Precision precision) {
+        if (precision == Precision.FLOAT) {
+            FloatBuffer weights = buffer.asFloatBuffer();
+
+            for (int i = 0; i < mWeights.length; i++) {
+                mWeights[i] = weights.get();
+            }
+
+            buffer.position(buffer.position() + (mWeights.length * Float.BYTES));
+        } else {
+            DoubleBuffer weights = buffer.asDoubleBuffer();
+            weights.get(mWeights);
+            buffer.position(buffer.position() + (mWeights.length * Double.BYTES));
+        }
+    }
+
+    @Override
+    void writeWeights(WritableByteChannel channel) throws IOException {
+        Utils.writeDoubles(channel, mWeights, ByteOrder.BIG_ENDIAN);
+    }
+}
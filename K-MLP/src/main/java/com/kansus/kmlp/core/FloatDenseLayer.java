@@ -0,0 +1,326 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.Utils;
+import com.kansus.kmlp.activation.ActivationFunction;
+import com.kansus.kmlp.initialization.WeightInitializer;
+import com.kansus.kmlp.model.BinaryInput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * A fully connected layer that keeps its weights in single precision. The inputs are rounded to
+ * single precision before they are multiplied by the weights, so the dot products are entirely
+ * calculated in single precision, but the activation function, the errors and the gradients are
+ * still calculated in double precision.
+ */
+class FloatDenseLayer extends DenseLayer {
+
+    private final float[] mWeights;
+
+    private final float[] mInput;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param neuronsCount       The amount of neurons in this layer.
+     * @param inputsCount        The amount of inputs the neurons of this layer have.
+     * @param activationFunction The activation function applied to the outputs of the neurons.
+     * @param weightInitializer  The strategy that draws the initial weights of this layer.
+     */
+    FloatDenseLayer(int neuronsCount, int inputsCount, ActivationFunction activationFunction,
+            WeightInitializer weightInitializer) {
+        this(neuronsCount, inputsCount, activationFunction, weightInitializer,
+                new float[neuronsCount * inputsCount + (weightInitializer.usesBiases() ? neuronsCount : 0)]);
+    }
+
+    private FloatDenseLayer(int neuronsCount, int inputsCount, ActivationFunction activationFunction,
+            WeightInitializer weightInitializer, float[] weights) {
+        super(neuronsCount, inputsCount, activationFunction, weightInitializer);
+        this.mWeights = weights;
+        this.mInput = new float[inputsCount];
+    }
+
+    @Override
+    DenseLayer createReplica() {
+        return new FloatDenseLayer(getNeuronsCount(), getInputsCount(), getActivationFunction(), getWeightInitializer(),
+                mWeights);
+    }
+
+    @Override
+    DenseLayer copy() {
+        return new FloatDenseLayer(getNeuronsCount(), getInputsCount(), getActivationFunction(), getWeightInitializer(),
+                mWeights.clone());
+    }
+
+    @Override
+    void copyWeightsFrom(DenseLayer layer) {
+        float[] weights = ((FloatDenseLayer) layer).mWeights;
+        System.arraycopy(weights, 0, mWeights, 0, mWeights.length);
+    }
+
+    @Override
+    Precision getPrecision() {
+        return Precision.FLOAT;
+    }
+
+    @Override
+    void forward(double[] input) {
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        double[] summedInputs = getSummedInputs();
+        double[] outputs = getOutputs();
+        ActivationFunction activationFunction = getActivationFunction();
+
+        toFloats(input, mInput, inputsCount);
+
+        for (int j = 0; j < neuronsCount; j++) {
+            float dotProductSum = KERNELS.dot(mInput, 0, mWeights, j * inputsCount, inputsCount);
+            summedInputs[j] = getSummedInput(dotProductSum, j);
+            outputs[j] = activationFunction.calculateOutput(summedInputs[j]);
+        }
+
+        normalizeOutputs(outputs, 0);
+    }
+
+    @Override
+    void forward(BinaryInput input) {
+        if (!input.isUnsigned()) {
+            forward(unpack(input));
+            return;
+        }
+
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        double[] summedInputs = getSummedInputs();
+        double[] outputs = getOutputs();
+        ActivationFunction activationFunction = getActivationFunction();
+        long[] words = input.getWords();
+
+        for (int j = 0; j < neuronsCount; j++) {
+            int offset = j * inputsCount;
+            float dotProductSum = 0;
+
+            for (int w = 0; w < words.length; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    dotProductSum += mWeights[offset + (w << 6) + Long.numberOfTrailingZeros(bits)];
+                }
+            }
+
+            summedInputs[j] = getSummedInput(dotProductSum, j);
+            outputs[j] = activationFunction.calculateOutput(summedInputs[j]);
+        }
+
+        normalizeOutputs(outputs, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The weights of a block of neurons are kept in cache while they are multiplied by all the
+     * samples, and every weight read is used by four samples, so the cost is bound by the memory
+     * bandwidth instead of the reads of the weights.
+     */
+    @Override
+    void forwardBatch(double[] inputs, int samplesCount, double[] outputs) {
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        ActivationFunction activationFunction = getActivationFunction();
+
+        float[] floatInputs = new float[samplesCount * inputsCount];
+        toFloats(inputs, floatInputs, floatInputs.length);
+
+        for (int firstNeuron = 0; firstNeuron < neuronsCount; firstNeuron += BATCH_NEURONS_BLOCK) {
+            int lastNeuron = Math.min(firstNeuron + BATCH_NEURONS_BLOCK, neuronsCount);
+            int s = 0;
+
+            for (; s + 3 < samplesCount; s += 4) {
+                int input0 = s * inputsCount;
+                int input1 = input0 + inputsCount;
+                int input2 = input1 + inputsCount;
+                int input3 = input2 + inputsCount;
+
+                for (int j = firstNeuron; j < lastNeuron; j++) {
+                    int offset = j * inputsCount;
+                    float sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+
+                    for (int i = 0; i < inputsCount; i++) {
+                        float weight = mWeights[offset + i];
+                        sum0 += (floatInputs[input0 + i] * weight);
+                        sum1 += (floatInputs[input1 + i] * weight);
+                        sum2 += (floatInputs[input2 + i] * weight);
+                        sum3 += (floatInputs[input3 + i] * weight);
+                    }
+
+                    outputs[s * neuronsCount + j] = activationFunction.calculateOutput(getSummedInput(sum0, j));
+                    outputs[(s + 1) * neuronsCount + j] = activationFunction.calculateOutput(getSummedInput(sum1, j));
+                    outputs[(s + 2) * neuronsCount + j] = activationFunction.calculateOutput(getSummedInput(sum2, j));
+                    outputs[(s + 3) * neuronsCount + j] = activationFunction.calculateOutput(getSummedInput(sum3, j));
+                }
+            }
+
+            for (; s < samplesCount; s++) {
+                int input = s * inputsCount;
+
+                for (int j = firstNeuron; j < lastNeuron; j++) {
+                    int offset = j * inputsCount;
+                    float sum = 0;
+
+                    for (int i = 0; i < inputsCount; i++) {
+                        sum += (floatInputs[input + i] * mWeights[offset + i]);
+                    }
+
+                    outputs[s * neuronsCount + j] = activationFunction.calculateOutput(getSummedInput(sum, j));
+                }
+            }
+        }
+
+        if (hasSoftmax()) {
+            for (int s = 0; s < samplesCount; s++) {
+                normalizeOutputs(outputs, s * neuronsCount);
+            }
+        }
+    }
+
+    /**
+     * Returns the summed input of a neuron, adding its bias to the weighted sum of its inputs, or
+     * dividing the weighted sum by twice the amount of neurons when this layer has no biases.
+     *
+     * @param dotProductSum The weighted sum of the inputs of the neuron.
+     * @param neuron        The index of the neuron.
+     * @return The summed input of the neuron.
+     */
+    private double getSummedInput(double dotProductSum, int neuron) {
+        if (hasBiases()) {
+            return dotProductSum + mWeights[getBiasesOffset() + neuron];
+        }
+
+        return dotProductSum / (getNeuronsCount() * 2);
+    }
+
+    @Override
+    void computeWeightedErrorSums(double[] sums) {
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        double[] errors = getErrors();
+
+        Arrays.fill(sums, 0, inputsCount, 0);
+
+        for (int k = 0; k < neuronsCount; k++) {
+            KERNELS.axpy(errors[k], mWeights, k * inputsCount, sums, 0, inputsCount);
+        }
+    }
+
+    @Override
+    void adjustWeights(double[] input, double learningRate) {
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        double[] errors = getErrors();
+
+        toFloats(input, mInput, inputsCount);
+
+        for (int j = 0; j < neuronsCount; j++) {
+            float delta = (float) (learningRate * errors[j]);
+            KERNELS.axpy(delta, mInput, 0, mWeights, j * inputsCount, inputsCount);
+        }
+
+        adjustBiases(learningRate);
+    }
+
+    @Override
+    void adjustWeights(BinaryInput input, double learningRate) {
+        if (!input.isUnsigned()) {
+            adjustWeights(unpack(input), learningRate);
+            return;
+        }
+
+        int neuronsCount = getNeuronsCount();
+        int inputsCount = getInputsCount();
+        double[] errors = getErrors();
+        long[] words = input.getWords();
+
+        for (int j = 0; j < neuronsCount; j++) {
+            int offset = j * inputsCount;
+            float delta = (float) (learningRate * errors[j]);
+
+            for (int w = 0; w < words.length; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    mWeights[offset + (w << 6) + Long.numberOfTrailingZeros(bits)] += delta;
+                }
+            }
+        }
+
+        adjustBiases(learningRate);
+    }
+
+    /**
+     * Adjusts the biases of this layer applying the function (bj += n*ej), if it has them.
+     *
+     * @param learningRate The learning rate of the neural network.
+     */
+    private void adjustBiases(double learningRate) {
+        if (!hasBiases()) {
+            return;
+        }
+
+        int neuronsCount = getNeuronsCount();
+        int biasesOffset = getBiasesOffset();
+        double[] errors = getErrors();
+
+        for (int j = 0; j < neuronsCount; j++) {
+            mWeights[biasesOffset + j] += (float) (learningRate * errors[j]);
+        }
+    }
+
+    @Override
+    void addToWeights(double[] gradients, int start, int end, double learningRate) {
+        for (int i = start; i < end; i++) {
+            mWeights[i] += (float) (learningRate * gradients[i]);
+        }
+    }
+
+    @Override
+    void setWeight(int index, double weight) {
+        mWeights[index] = (float) weight;
+    }
+
+    @Override
+    void readWeights(ByteBuffer buffer, Precision precision) {
+        if (precision == Precision.DOUBLE) {
+            DoubleBuffer weights = buffer.asDoubleBuffer();
+
+            for (int i = 0; i < mWeights.length; i++) {
+                mWeights[i] = (float) weights.get();
+            }
+
+            buffer.position(buffer.position() + (mWeights.length * Double.BYTES));
+        } else {
+            FloatBuffer weights = buffer.asFloatBuffer();
+            weights.get(mWeights);
+            buffer.position(buffer.position() + (mWeights.length * Float.BYTES));
+        }
+    }
+
+    @Override
+    void writeWeights(WritableByteChannel channel) throws IOException {
+        Utils.writeFloats(channel, mWeights, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Rounds doubles to single precision.
+     *
+     * @param source      The doubles.
+     * @param destination The array that receives the rounded values.
+     * @param length      The amount of doubles to be rounded.
+     */
+    private static void toFloats(double[] source, float[] destination, int length) {
+        for (int i = 0; i < length; i++) {
+            destination[i] = (float) source[i];
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.kansus.kmlp.core;
+
+/**
+ * An immutable, evaluation only version of a trained multilayer perceptron. All the threads that
+ * use a model share its weights, and every thread gets its own buffers for the outputs of the
+ * layers, so a single model can evaluate inputs from many threads at the same time.
+ *
+ * @see MultilayerPerceptron#toInferenceModel()
+ */
+public final class InferenceModel {
+
+    private final DenseNetwork mNetwork;
+
+    private final ThreadLocal<DenseNetwork> mThreadNetworks;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param network The network evaluated by this model. Its weights must not be modified
+     *                afterwards.
+     */
+    InferenceModel(DenseNetwork network) {
+        this.mNetwork = network;
+        this.mThreadNetworks = ThreadLocal.withInitial(network::createReplica);
+    }
+
+    /**
+     * Returns the amount of inputs of this model.
+     *
+     * @return The amount of inputs of this model.
+     */
+    public int getInputsCount() {
+        return mNetwork.getInputsCount();
+    }
+
+    /**
+     * Returns the amount of outputs of this model.
+     *
+     * @return The amount of outputs of this model.
+     */
+    public int getOutputsCount() {
+        return mNetwork.getOutputLayer().getNeuronsCount();
+    }
+
+    /**
+     * Evaluate the input data by obtaining the outputs of the network.
+     *
+     * @param input The data to be evaluated.
+     * @return The outputs of the neural network.
+     */
+    public double[] evaluate(double[] input) {
+        return evaluate(input, new double[getOutputsCount()]);
+    }
+
+    /**
+     * Evaluate the input data by obtaining the outputs of the network, without allocating a new
+     * array for them.
+     *
+     * @param input  The data to be evaluated.
+     * @param output The array that receives the outputs of the neural network. Its length must be
+     *               at least the amount of outputs.
+     * @return The given output array.
+     */
+    public double[] evaluate(double[] input, double[] output) {
+        double[] networkOutput = mThreadNetworks.get().forward(input);
+        System.arraycopy(networkOutput, 0, output, 0, networkOutput.length);
+        return output;
+    }
+
+    /**
+     * Evaluate many inputs at once.
+     *
+     * @param inputs The data to be evaluated, one array per sample.
+     * @return The outputs of the neural network, one array per sample.
+     * @see MultilayerPerceptron#evaluateBatch(double[][])
+     */
+    public double[][] evaluateBatch(double[][] inputs) {
+        return mNetwork.evaluateBatch(inputs);
+    }
+
+    /**
+     * Evaluate many inputs at once, stored in a single matrix.
+     *
+     * @param inputs       The data to be evaluated, with the inputs of each sample one after the
+     *                     other.
+     * @param samplesCount The amount of samples in the matrix.
+     * @return The outputs of the neural network, with the outputs of each sample one after the
+     * other.
+     * @see MultilayerPerceptron#evaluateBatch(double[], int)
+     */
+    public double[] evaluateBatch(double[] inputs, int samplesCount) {
+        return mNetwork.evaluateBatch(inputs, samplesCount);
+    }
+}
@@ -0,0 +1,525 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.activation.ActivationFunction;
+import com.kansus.kmlp.activation.ActivationFunctions;
+import com.kansus.kmlp.initialization.WeightInitializer;
+import com.kansus.kmlp.initialization.WeightInitializers;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the model files of the multilayer perceptrons. A model file starts with a
+ * header that describes the network, followed by the weights of all the layers except the input
+ * layer, including their biases, in the same order they are kept by {@link DenseLayer}. All the
+ * values are big-endian.
+ * <p>
+ * <pre>
+ * int     magic number, "KMLP"
+ * int     format version
+ * byte    data type of the weights, 64 or 32 bits floating point numbers
+ * int     amount of layers, including the input layer
+ * int[]   amount of neurons of each layer
+ * byte[]  activation function of each layer, except the input layer, see {@link ActivationFunctions}
+ * byte[]  weight initializer of each layer, except the input layer, see {@link WeightInitializers}
+ * int     amount of weights
+ * int     CRC32 of the header before it, followed by the weights block
+ * ...     weights block
+ * </pre>
+ * The amount of weights is checked against the topology before any layer is allocated, so a
+ * corrupted header is reported as such instead of running out of memory. The files of the version
+ * 1 have no weight initializers, as they were written before the layers had biases, are loaded
+ * with the legacy initialization and have a CRC32 of the weights block only. Files written before this format
+ * existed only have the weights block. They can still be loaded into a network that already has
+ * the right topology and no biases, or into a new one when the caller knows that topology.
+ * <p>
+ * The files are memory-mapped when loaded and the weights are copied straight from the mapping
+ * into the layers, with no intermediary arrays.
+ */
+final class ModelFile {
+
+    /**
+     * The first bytes of every model file, "KMLP" in ASCII.
+     */
+    static final int MAGIC = 0x4B4D4C50;
+
+    /**
+     * The version of the format written by this class.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * The version of the files written before the layers had biases, which have no weight
+     * initializers in the header.
+     */
+    static final int VERSION_WITHOUT_BIASES = 1;
+
+    /**
+     * Data type of weights stored as 64 bits floating point numbers.
+     */
+    static final byte DTYPE_FLOAT64 = 0;
+
+    /**
+     * Data type of weights stored as 32 bits floating point numbers.
+     */
+    static final byte DTYPE_FLOAT32 = 1;
+
+    private ModelFile() {
+    }
+
+    /**
+     * Writes the given network to a model file.
+     *
+     * @param network The network to be saved.
+     * @param file    The file in which to save the network.
+     * @throws IOException If the file could not be written or one of the layers has an activation
+     *                     function that is not one of the {@link ActivationFunctions} or a weight
+     *                     initializer that is not one of the {@link WeightInitializers}.
+     */
+    static void write(DenseNetwork network, File file) throws IOException {
+        int layersCount = network.getLayersCount() + 1;
+        ByteBuffer header = ByteBuffer.allocate(getHeaderLength(layersCount)).order(ByteOrder.BIG_ENDIAN);
+
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.put(network.getPrecision() == Precision.FLOAT ? DTYPE_FLOAT32 : DTYPE_FLOAT64);
+        header.putInt(layersCount);
+
+        for (int size : network.getLayerSizes()) {
+            header.putInt(size);
+        }
+
+        for (ActivationFunction activationFunction : network.getActivationFunctions()) {
+            try {
+                header.put((byte) ActivationFunctions.getId(activationFunction));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("The network can't be saved. " + e.getMessage(), e);
+            }
+        }
+
+        for (WeightInitializer weightInitializer : network.getWeightInitializers()) {
+            try {
+                header.put((byte) WeightInitializers.getId(weightInitializer));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("The network can't be saved. " + e.getMessage(), e);
+            }
+        }
+
+        header.putInt(network.getWeightsCount());
+        int checksumPosition = header.position();
+        header.putInt(0);
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChecksumChannel checksumChannel = new ChecksumChannel(channel);
+
+            header.limit(checksumPosition);
+            while (header.hasRemaining()) {
+                checksumChannel.write(header);
+            }
+
+            header.limit(header.capacity());
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+
+            for (int i = 0; i < network.getLayersCount(); i++) {
+                network.getLayer(i).writeWeights(checksumChannel);
+            }
+
+            ByteBuffer checksum = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.BIG_ENDIAN);
+            checksum.putInt(0, checksumChannel.getChecksum());
+            channel.write(checksum, checksumPosition);
+        }
+    }
+
+    /**
+     * Creates a network with the topology described by a model file and loads its weights.
+     *
+     * @param file The model file.
+     * @return The network.
+     * @throws IOException If the file could not be read, is not a model file or is corrupted.
+     */
+    static DenseNetwork read(File file) throws IOException {
+        return read(file, null);
+    }
+
+    /**
+     * Creates a network with the topology described by a model file and loads its weights. A file
+     * without a header is loaded into a network with the given topology, the default activation
+     * function and the legacy initialization, which is the network every file without a header was
+     * written from.
+     *
+     * @param file             The model file.
+     * @param legacyLayerSizes The amount of neurons in each layer of the network of a file without
+     *                         a header, or null to reject such files.
+     * @return The network.
+     * @throws IOException If the file could not be read, is not a model file or is corrupted.
+     */
+    static DenseNetwork read(File file, int[] legacyLayerSizes) throws IOException {
+        ByteBuffer buffer = map(file);
+
+        if (!hasHeader(buffer)) {
+            if (legacyLayerSizes == null) {
+                throw new IOException("The file \"" + file + "\" does not have a model header, its weights "
+                        + "can only be loaded into a network with the same topology.");
+            }
+
+            ActivationFunction[] activationFunctions = new ActivationFunction[legacyLayerSizes.length - 1];
+            WeightInitializer[] weightInitializers = new WeightInitializer[legacyLayerSizes.length - 1];
+            Arrays.fill(activationFunctions, ActivationFunctions.DEFAULT);
+            Arrays.fill(weightInitializers, WeightInitializers.LEGACY);
+
+            DenseNetwork network = new DenseNetwork(Precision.DOUBLE, activationFunctions, weightInitializers,
+                    legacyLayerSizes.clone());
+            readWithoutHeader(buffer, file, network);
+            return network;
+        }
+
+        buffer.getInt();
+        Header header = readHeader(buffer, file);
+        verifyWeights(buffer, file, header);
+        DenseNetwork network;
+
+        try {
+            network = new DenseNetwork(header.mPrecision, header.mActivationFunctions, header.mWeightInitializers,
+                    header.mLayerSizes);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The model file \"" + file + "\" describes an invalid network. " + e.getMessage(), e);
+        }
+
+        copyWeights(buffer, network, header.mPrecision);
+        return network;
+    }
+
+    /**
+     * Loads the weights of a model file into the given network, converting them to the precision
+     * of the network if needed. Files without a header are accepted as long as the network has no
+     * biases and they have exactly the amount of weights of the network.
+     *
+     * @param file    The model file.
+     * @param network The network that receives the weights.
+     * @throws IOException If the file could not be read, is corrupted or describes a network with
+     *                     a different topology. The weights of the network are not modified.
+     */
+    static void readInto(File file, DenseNetwork network) throws IOException {
+        ByteBuffer buffer = map(file);
+
+        if (!hasHeader(buffer)) {
+            readWithoutHeader(buffer, file, network);
+            return;
+        }
+
+        buffer.getInt();
+        Header header = readHeader(buffer, file);
+        int[] networkSizes = network.getLayerSizes();
+
+        if (!Arrays.equals(header.mLayerSizes, networkSizes)) {
+            throw new IOException("The model file \"" + file + "\" has the topology "
+                    + Arrays.toString(header.mLayerSizes) + ", but the network has the topology "
+                    + Arrays.toString(networkSizes) + ".");
+        }
+
+        ActivationFunction[] networkActivationFunctions = network.getActivationFunctions();
+
+        for (int i = 0; i < networkActivationFunctions.length; i++) {
+            if (header.mActivationFunctions[i] != networkActivationFunctions[i]) {
+                throw new IOException("The layer " + (i + 1) + " of the model file \"" + file + "\" uses the "
+                        + "activation function " + ActivationFunctions.getName(header.mActivationFunctions[i])
+                        + ", but the network uses another one.");
+            }
+        }
+
+        checkWeightInitializers(file, header.mWeightInitializers, network);
+        verifyWeights(buffer, file, header);
+        copyWeights(buffer, network, header.mPrecision);
+    }
+
+    /**
+     * Returns whether a mapped file starts with the magic number of the model files.
+     */
+    private static boolean hasHeader(ByteBuffer buffer) {
+        return buffer.remaining() >= Integer.BYTES && buffer.getInt(0) == MAGIC;
+    }
+
+    /**
+     * Loads the weights of a file without a header, which only has the weights block, as 64 bits
+     * floating point numbers, of a network without biases.
+     */
+    private static void readWithoutHeader(ByteBuffer buffer, File file, DenseNetwork network) throws IOException {
+        WeightInitializer[] legacyInitializers = new WeightInitializer[network.getLayersCount()];
+        Arrays.fill(legacyInitializers, WeightInitializers.LEGACY);
+        checkWeightInitializers(file, legacyInitializers, network);
+
+        long expectedLength = (long) network.getWeightsCount() * Double.BYTES;
+
+        if (buffer.remaining() != expectedLength) {
+            throw new IOException("The weights file \"" + file + "\" has " + buffer.remaining()
+                    + " bytes, but the network needs " + expectedLength + " bytes.");
+        }
+
+        copyWeights(buffer, network, Precision.DOUBLE);
+    }
+
+    /**
+     * Checks that every layer of the network has the weight initializer of the same layer of a
+     * model file. The initializers decide which layers have biases and how the inputs are summed,
+     * so weights trained with another initializer would not give the same outputs.
+     */
+    private static void checkWeightInitializers(File file, WeightInitializer[] fileWeightInitializers,
+                                                DenseNetwork network) throws IOException {
+        WeightInitializer[] networkWeightInitializers = network.getWeightInitializers();
+
+        for (int i = 0; i < networkWeightInitializers.length; i++) {
+            if (fileWeightInitializers[i] != networkWeightInitializers[i]) {
+                throw new IOException("The layer " + (i + 1) + " of the model file \"" + file + "\" uses the "
+                        + "weight initialization " + WeightInitializers.getName(fileWeightInitializers[i])
+                        + ", but the network uses another one.");
+            }
+        }
+    }
+
+    /**
+     * Maps the whole file into memory, so the weights are read straight from the page cache
+     * instead of being copied through intermediary arrays. The mapping stays valid after the
+     * channel is closed and is released when the buffer is garbage collected.
+     *
+     * @param file The file to be mapped.
+     * @return A big-endian read-only buffer with the contents of the file.
+     * @throws IOException If the file could not be read or is too big to be mapped.
+     */
+    private static ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The model file \"" + file + "\" is too big.");
+            }
+
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+        }
+    }
+
+    /**
+     * Reads the header that follows the magic number and returns the precision, the topology, the
+     * activation functions, the weight initializers, the amount of weights and the checksum it
+     * describes. The amount of weights must be the one of the topology, which is calculated
+     * without overflowing, so nothing is allocated for a header that can't be right.
+     */
+    private static Header readHeader(ByteBuffer buffer, File file) throws IOException {
+        try {
+            int version = buffer.getInt();
+            if (version != VERSION && version != VERSION_WITHOUT_BIASES) {
+                throw new IOException("The model file \"" + file + "\" has the unsupported version " + version + ".");
+            }
+
+            byte dataType = buffer.get();
+            Precision precision;
+
+            if (dataType == DTYPE_FLOAT64) {
+                precision = Precision.DOUBLE;
+            } else if (dataType == DTYPE_FLOAT32) {
+                precision = Precision.FLOAT;
+            } else {
+                throw new IOException("The model file \"" + file + "\" has the unsupported data type " + dataType
+                        + ".");
+            }
+
+            int layersCount = buffer.getInt();
+            if (layersCount < 2 || layersCount > buffer.remaining() / Integer.BYTES) {
+                throw new IOException("The model file \"" + file + "\" has an invalid amount of layers, "
+                        + layersCount + ".");
+            }
+
+            int[] layerSizes = new int[layersCount];
+            for (int i = 0; i < layersCount; i++) {
+                layerSizes[i] = buffer.getInt();
+
+                if (layerSizes[i] < 1) {
+                    throw new IOException("The model file \"" + file + "\" has a layer without neurons.");
+                }
+            }
+
+            ActivationFunction[] activationFunctions = new ActivationFunction[layersCount - 1];
+            for (int i = 0; i < activationFunctions.length; i++) {
+                byte activation = buffer.get();
+
+                try {
+                    activationFunctions[i] = ActivationFunctions.forId(activation);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("The model file \"" + file + "\" has the unsupported activation "
+                            + "function " + activation + ".");
+                }
+            }
+
+            WeightInitializer[] weightInitializers = new WeightInitializer[layersCount - 1];
+            for (int i = 0; i < weightInitializers.length; i++) {
+                if (version == VERSION_WITHOUT_BIASES) {
+                    weightInitializers[i] = WeightInitializers.LEGACY;
+                    continue;
+                }
+
+                byte initializer = buffer.get();
+
+                try {
+                    weightInitializers[i] = WeightInitializers.forId(initializer);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("The model file \"" + file + "\" has the unsupported weight "
+                            + "initializer " + initializer + ".");
+                }
+            }
+
+            long topologyWeightsCount = 0;
+            for (int i = 1; i < layersCount; i++) {
+                topologyWeightsCount += (long) layerSizes[i] * layerSizes[i - 1];
+
+                if (weightInitializers[i - 1].usesBiases()) {
+                    topologyWeightsCount += layerSizes[i];
+                }
+            }
+
+            int weightsCount = buffer.getInt();
+            if (weightsCount != topologyWeightsCount) {
+                throw new IOException("The model file \"" + file + "\" has " + weightsCount + " weights, but its "
+                        + "topology " + Arrays.toString(layerSizes) + " needs " + topologyWeightsCount + ".");
+            }
+
+            int headerLength = buffer.position();
+            int checksum = buffer.getInt();
+
+            return new Header(version, precision, layerSizes, activationFunctions, weightInitializers, weightsCount,
+                    headerLength, checksum);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("The header of the model file \"" + file + "\" is truncated.");
+        }
+    }
+
+    /**
+     * Checks that the weights block that follows the header has the length given by the header,
+     * and that the checksum matches the whole file, so the weights are only copied to a network
+     * after the file is verified.
+     */
+    private static void verifyWeights(ByteBuffer buffer, File file, Header header) throws IOException {
+        long blockLength = (long) header.mWeightsCount
+                * (header.mPrecision == Precision.FLOAT ? Float.BYTES : Double.BYTES);
+
+        if (buffer.remaining() < blockLength) {
+            throw new EOFException("The weights of the model file \"" + file + "\" are truncated.");
+        } else if (buffer.remaining() > blockLength) {
+            throw new IOException("The model file \"" + file + "\" has data after the weights.");
+        }
+
+        CRC32 crc = new CRC32();
+
+        if (header.mVersion != VERSION_WITHOUT_BIASES) {
+            ByteBuffer headerBytes = buffer.duplicate();
+            headerBytes.position(0).limit(header.mHeaderLength);
+            crc.update(headerBytes);
+        }
+
+        crc.update(buffer.duplicate());
+
+        if ((int) crc.getValue() != header.mChecksum) {
+            throw new IOException("The model file \"" + file + "\" is corrupted.");
+        }
+    }
+
+    /**
+     * Copies the remaining weights of the buffer straight into the weights of the layers of the
+     * network, through views of the buffer in the precision of the weights.
+     */
+    private static void copyWeights(ByteBuffer buffer, DenseNetwork network, Precision precision) {
+        for (int i = 0; i < network.getLayersCount(); i++) {
+            network.getLayer(i).readWeights(buffer, precision);
+        }
+    }
+
+    /**
+     * Returns the length of the header of a network with the given amount of layers, from the
+     * magic number to the checksum.
+     */
+    private static int getHeaderLength(int layersCount) {
+        return (4 * Integer.BYTES) + 1 + (layersCount * Integer.BYTES) + 2 * (layersCount - 1) + Integer.BYTES;
+    }
+
+    /**
+     * The precision, the topology, the activation functions, the weight initializers, the amount
+     * of weights and the checksum described by the header of a model file.
+     */
+    private static class Header {
+
+        private final int mVersion;
+
+        private final Precision mPrecision;
+
+        private final int[] mLayerSizes;
+
+        private final ActivationFunction[] mActivationFunctions;
+
+        private final WeightInitializer[] mWeightInitializers;
+
+        private final int mWeightsCount;
+
+        private final int mHeaderLength;
+
+        private final int mChecksum;
+
+        Header(int version, Precision precision, int[] layerSizes, ActivationFunction[] activationFunctions,
+               WeightInitializer[] weightInitializers, int weightsCount, int headerLength, int checksum) {
+            this.mVersion = version;
+            this.mPrecision = precision;
+            this.mLayerSizes = layerSizes;
+            this.mActivationFunctions = activationFunctions;
+            this.mWeightInitializers = weightInitializers;
+            this.mWeightsCount = weightsCount;
+            this.mHeaderLength = headerLength;
+            this.mChecksum = checksum;
+        }
+    }
+
+    /**
+     * A channel that calculates the CRC32 of all the bytes written to another channel.
+     */
+    private static class ChecksumChannel implements WritableByteChannel {
+
+        private final WritableByteChannel mChannel;
+
+        private final CRC32 mCrc = new CRC32();
+
+        ChecksumChannel(WritableByteChannel channel) {
+            this.mChannel = channel;
+        }
+
+        int getChecksum() {
+            return (int) mCrc.getValue();
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            ByteBuffer written = source.duplicate();
+            int bytesWritten = mChannel.write(source);
+
+            written.limit(written.position() + bytesWritten);
+            mCrc.update(written);
+            return bytesWritten;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return mChannel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            mChannel.close();
+        }
+    }
+}
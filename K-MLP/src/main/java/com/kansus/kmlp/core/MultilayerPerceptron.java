@@ -1,63 +1,226 @@
 package com.kansus.kmlp.core;
 
+import com.kansus.kmlp.activation.ActivationFunction;
+import com.kansus.kmlp.activation.ActivationFunctions;
+import com.kansus.kmlp.initialization.WeightInitializer;
+import com.kansus.kmlp.initialization.WeightInitializers;
+import com.kansus.kmlp.model.BinaryInput;
 import com.kansus.kmlp.model.Pattern;
-import com.kansus.kmlp.Utils;
-import com.kansus.kmlp.layer.HiddenLayer;
-import com.kansus.kmlp.layer.InputLayer;
-import com.kansus.kmlp.layer.Layer;
-import com.kansus.kmlp.layer.OutputLayer;
-import com.kansus.kmlp.neuron.Neuron;
-
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import com.kansus.kmlp.optimizer.GradientDescentOptimizer;
+import com.kansus.kmlp.optimizer.Optimizer;
+import com.kansus.kmlp.schedule.ConstantSchedule;
+import com.kansus.kmlp.schedule.LearningRateSchedule;
+
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-
-// TODO Salvar no arquivo de pesos também a estrutura da rede neural.
+import java.util.List;
+import java.util.Random;
 
 /**
  * This class represents a multilayer perceptron neural network.
  */
 public class MultilayerPerceptron {
 
-    private static final int KEY_INPUT_LAYER = 0;
-    private static final int KEY_HIDDEN_LAYER = 1;
-    private static final int KEY_OUTPUT_LAYER = 2;
-
     private double mLearningRate = 0.05;
 
     private double mMinimumError = 0.01;
 
     private int mMaxEpochs = 10000;
 
+    private int mBatchSize = 1;
+
+    private int mThreadsCount = 1;
+
+    private long mSeed = 0;
+
+    private boolean mShufflePatterns = true;
+
+    private Optimizer mOptimizer = new GradientDescentOptimizer();
+
+    private LearningRateSchedule mLearningRateSchedule = new ConstantSchedule();
+
+    private double mValidationSplit = 0;
+
+    private int mValidationInterval = 10;
+
+    private int mEarlyStoppingPatience = 0;
+
+    private double mBestValidationError = Double.NaN;
+
+    private File mCheckpointFile;
+
+    private int mCheckpointInterval = 0;
+
+    private int mCheckpointMinutes = 0;
+
     private ArrayList<Pattern> mTrainingSet = new ArrayList<>();
 
-    private ArrayList<Layer> mLayers = new ArrayList<>();
+    private ArrayList<Pattern> mValidationSet = new ArrayList<>();
+
+    private DenseNetwork mNetwork;
 
     private NetworkTrainingListener mProgressListener;
 
     public MultilayerPerceptron(int inputNeurons, int hiddenNeurons, int outputNeurons) {
-        InputLayer inputLayer = new InputLayer("input_layer", inputNeurons, 1);
-        HiddenLayer hiddenLayer = new HiddenLayer("hidden_layer", hiddenNeurons, inputLayer.getNeuronsCount());
-        OutputLayer outputLayer = new OutputLayer("output_layer", outputNeurons, hiddenLayer.getNeuronsCount());
+        this(inputNeurons, hiddenNeurons, outputNeurons, Precision.DOUBLE);
+    }
+
+    /**
+     * Constructor of this class.
+     *
+     * @param inputNeurons  The amount of neurons in the input layer.
+     * @param hiddenNeurons The amount of neurons in the hidden layer.
+     * @param outputNeurons The amount of neurons in the output layer.
+     * @param precision     The precision of the weights of the neural network.
+     */
+    public MultilayerPerceptron(int inputNeurons, int hiddenNeurons, int outputNeurons, Precision precision) {
+        this(inputNeurons, hiddenNeurons, outputNeurons, precision, ActivationFunctions.DEFAULT,
+                ActivationFunctions.DEFAULT);
+    }
+
+    /**
+     * Constructor of this class. Only the activation functions of
+     * {@link ActivationFunctions} can be saved to a model file. Both layers
+     * use the legacy weight initialization, without biases.
+     *
+     * @param inputNeurons             The amount of neurons in the input layer.
+     * @param hiddenNeurons            The amount of neurons in the hidden layer.
+     * @param outputNeurons            The amount of neurons in the output layer.
+     * @param precision                The precision of the weights of the neural
+     *                                 network.
+     * @param hiddenActivationFunction The activation function of the hidden
+     *                                 layer.
+     * @param outputActivationFunction The activation function of the output
+     *                                 layer.
+     */
+    public MultilayerPerceptron(int inputNeurons, int hiddenNeurons, int outputNeurons, Precision precision,
+                                ActivationFunction hiddenActivationFunction,
+                                ActivationFunction outputActivationFunction) {
+        this(inputNeurons, hiddenNeurons, outputNeurons, precision, hiddenActivationFunction,
+                outputActivationFunction, WeightInitializers.LEGACY, WeightInitializers.LEGACY);
+    }
+
+    /**
+     * Constructor of this class. Only the activation functions of
+     * {@link ActivationFunctions} and the weight initializers of
+     * {@link WeightInitializers} can be saved to a model file. The layers
+     * whose weight initializer is not the legacy one have a bias per neuron,
+     * and usually converge in far fewer epochs.
+     *
+     * @param inputNeurons             The amount of neurons in the input layer.
+     * @param hiddenNeurons            The amount of neurons in the hidden layer.
+     * @param outputNeurons            The amount of neurons in the output layer.
+     * @param precision                The precision of the weights of the neural
+     *                                 network.
+     * @param hiddenActivationFunction The activation function of the hidden
+     *                                 layer.
+     * @param outputActivationFunction The activation function of the output
+     *                                 layer.
+     * @param hiddenWeightInitializer  The weight initializer of the hidden
+     *                                 layer.
+     * @param outputWeightInitializer  The weight initializer of the output
+     *                                 layer.
+     */
+    public MultilayerPerceptron(int inputNeurons, int hiddenNeurons, int outputNeurons, Precision precision,
+                                ActivationFunction hiddenActivationFunction,
+                                ActivationFunction outputActivationFunction,
+                                WeightInitializer hiddenWeightInitializer,
+                                WeightInitializer outputWeightInitializer) {
+        this(new int[]{inputNeurons, hiddenNeurons, outputNeurons}, precision,
+                new ActivationFunction[]{hiddenActivationFunction, outputActivationFunction},
+                new WeightInitializer[]{hiddenWeightInitializer, outputWeightInitializer});
+    }
+
+    /**
+     * Constructor of this class for a network with any amount of hidden
+     * layers. All the layers use the default activation function and the
+     * legacy weight initialization.
+     *
+     * @param layerSizes The amount of neurons in each layer, starting with the
+     *                   input layer and ending with the output layer.
+     * @param precision  The precision of the weights of the neural network.
+     */
+    public MultilayerPerceptron(int[] layerSizes, Precision precision) {
+        this(layerSizes, precision, fill(new ActivationFunction[layerSizes.length - 1], ActivationFunctions.DEFAULT),
+                fill(new WeightInitializer[layerSizes.length - 1], WeightInitializers.LEGACY));
+    }
+
+    /**
+     * Constructor of this class for a network with any amount of hidden
+     * layers, like 576-128-128-92.
+     *
+     * @param layerSizes          The amount of neurons in each layer, starting
+     *                            with the input layer and ending with the
+     *                            output layer.
+     * @param precision           The precision of the weights of the neural
+     *                            network.
+     * @param activationFunctions The activation function of each layer, except
+     *                            the input layer.
+     * @param weightInitializers  The weight initializer of each layer, except
+     *                            the input layer.
+     */
+    public MultilayerPerceptron(int[] layerSizes, Precision precision, ActivationFunction[] activationFunctions,
+                                WeightInitializer[] weightInitializers) {
+        if (layerSizes.length < 2) {
+            throw new IllegalArgumentException("A network needs at least an input and an output layer.");
+        }
+
+        mNetwork = new DenseNetwork(precision, activationFunctions.clone(), weightInitializers.clone(),
+                layerSizes.clone());
+    }
 
-        mLayers.add(inputLayer);
-        mLayers.add(hiddenLayer);
-        mLayers.add(outputLayer);
+    private static <T> T[] fill(T[] array, T value) {
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    private MultilayerPerceptron(DenseNetwork network) {
+        mNetwork = network;
+    }
 
-        hiddenLayer.setOutputLayer(outputLayer);
+    /**
+     * Creates a neural network with the topology, the precision and the
+     * weights saved in a model file by {@link #saveWeightsToFile(File)}.
+     *
+     * @param file The model file.
+     * @return The neural network.
+     * @throws IOException If the file could not be read, does not describe
+     *                     its network or is corrupted.
+     */
+    public static MultilayerPerceptron loadFromFile(File file) throws IOException {
+        return new MultilayerPerceptron(ModelFile.read(file));
+    }
+
+    /**
+     * Creates a neural network with the topology, the precision and the
+     * weights saved in a model file, or with the given topology when the file
+     * has only weights, as the files saved before the model files existed.
+     * Those files are loaded into a network with the default activation
+     * function and the legacy weight initialization.
+     *
+     * @param file             The model file or weights file.
+     * @param legacyLayerSizes The amount of neurons in each layer of the
+     *                         network of a file without topology.
+     * @return The neural network.
+     * @throws IOException If the file could not be read, is corrupted or has
+     *                     an amount of weights that does not match the
+     *                     topology.
+     */
+    public static MultilayerPerceptron loadFromFile(File file, int[] legacyLayerSizes) throws IOException {
+        if (legacyLayerSizes.length < 2) {
+            throw new IllegalArgumentException("A network needs at least an input and an output layer.");
+        }
+
+        return new MultilayerPerceptron(ModelFile.read(file, legacyLayerSizes));
     }
 
     /**
      * Trains this neural network using the patterns in the training set.
      */
     public void train() {
-        this.backpropagation();
+        this.backpropagation(null);
     }
 
     /**
@@ -68,7 +231,28 @@ public class MultilayerPerceptron {
      */
     public void train(NetworkTrainingListener progressListener) {
         this.mProgressListener = progressListener;
-        this.backpropagation();
+        this.backpropagation(null);
+    }
+
+    /**
+     * Resumes a training from a checkpoint, continuing exactly where it
+     * stopped. This network must have been set up as the one that saved the
+     * checkpoint, with the same topology, optimizer, learning rate schedule
+     * and patterns.
+     *
+     * @param checkpointFile   The checkpoint file.
+     * @param progressListener A listener that will be invoked whenever there is
+     *                         a change in the training progress.
+     * @throws IOException If the checkpoint could not be read, is corrupted or
+     *                     does not match this network or its patterns. The
+     *                     network is not modified.
+     */
+    public void resume(File checkpointFile, NetworkTrainingListener progressListener) throws IOException {
+        CheckpointFile.Checkpoint checkpoint = CheckpointFile.read(checkpointFile, mNetwork,
+                getTrainingPatternsCount());
+
+        this.mProgressListener = progressListener;
+        this.backpropagation(checkpoint);
     }
 
     /**
@@ -79,9 +263,120 @@ public class MultilayerPerceptron {
      */
     public double[] evaluate(double[] input) {
         // Log.d("MLP", "evaluate");
-        this.forward(input);
-        OutputLayer outputLayer = (OutputLayer) mLayers.get(KEY_OUTPUT_LAYER);
-        return outputLayer.getOutput();
+        return this.forward(input).clone();
+    }
+
+    /**
+     * Evaluate the input data by obtaining the outputs of the network, without
+     * allocating a new array for them.
+     *
+     * @param input  The data to be evaluated.
+     * @param output The array that receives the outputs of the neural network.
+     *               Its length must be at least the amount of output neurons.
+     * @return The given output array.
+     */
+    public double[] evaluate(double[] input, double[] output) {
+        double[] networkOutput = this.forward(input);
+        System.arraycopy(networkOutput, 0, output, 0, networkOutput.length);
+        return output;
+    }
+
+    /**
+     * Evaluate packed input data by obtaining the outputs of the network. The
+     * first layer only adds the weights selected by the bits of the input,
+     * instead of multiplying every input by its weight.
+     *
+     * @param input The packed data to be evaluated.
+     * @return The outputs of the neural network.
+     */
+    public double[] evaluate(BinaryInput input) {
+        return mNetwork.forward(input).clone();
+    }
+
+    /**
+     * Evaluate many inputs at once. The inputs go through each layer together,
+     * which is much faster than evaluating them one by one when there are
+     * many of them.
+     *
+     * @param inputs The data to be evaluated, one array per sample.
+     * @return The outputs of the neural network, one array per sample.
+     */
+    public double[][] evaluateBatch(double[][] inputs) {
+        return mNetwork.evaluateBatch(inputs);
+    }
+
+    /**
+     * Evaluate many inputs at once, stored in a single matrix.
+     *
+     * @param inputs       The data to be evaluated, with the inputs of each
+     *                     sample one after the other.
+     * @param samplesCount The amount of samples in the matrix.
+     * @return The outputs of the neural network, with the outputs of each
+     * sample one after the other.
+     * @see #evaluateBatch(double[][])
+     */
+    public double[] evaluateBatch(double[] inputs, int samplesCount) {
+        return mNetwork.evaluateBatch(inputs, samplesCount);
+    }
+
+    /**
+     * Creates an immutable copy of this neural network that can only evaluate
+     * inputs. The copy is not affected by further trainings of this network and
+     * can be shared by any amount of threads, which evaluate inputs at the same
+     * time using the same weights.
+     *
+     * @return An inference model with the current weights of this network.
+     */
+    public InferenceModel toInferenceModel() {
+        return new InferenceModel(mNetwork.copy());
+    }
+
+    /**
+     * Trains this neural network with a single pattern, updating the weights
+     * right away regardless of the batch size. Unlike {@link #train()}, the
+     * current weights are kept, so this can be used to keep training a network.
+     *
+     * @param data           The pattern data.
+     * @param expectedOutput The expected output of the pattern.
+     * @return The loss of the network for the pattern, before the weights
+     * were updated.
+     */
+    public double trainPattern(double[] data, double[] expectedOutput) {
+        mNetwork.forward(data);
+        mNetwork.computeErrors(expectedOutput);
+
+        if (mNetwork.hasWeightUpdaters()) {
+            mNetwork.accumulateGradients(data);
+            mNetwork.applyGradients(this.mLearningRate);
+        } else {
+            mNetwork.adjustWeights(data, this.mLearningRate);
+        }
+
+        return mNetwork.getLoss(expectedOutput);
+    }
+
+    /**
+     * Trains this neural network with a single packed pattern, updating the
+     * weights right away regardless of the batch size.
+     *
+     * @param data           The packed pattern data.
+     * @param expectedOutput The expected output of the pattern.
+     * @return The loss of the network for the pattern, before the weights
+     * were updated.
+     * @see #trainPattern(double[], double[])
+     */
+    public double trainPattern(BinaryInput data, double[] expectedOutput) {
+        mNetwork.forward(data);
+        mNetwork.computeErrors(expectedOutput);
+
+        if (mNetwork.hasWeightUpdaters()) {
+            mNetwork.accumulateGradients(data);
+            mNetwork.applyGradients(this.mLearningRate);
+        } else {
+            mNetwork.adjustWeights(data, this.mLearningRate);
+        }
+
+        return mNetwork.getLoss(expectedOutput);
     }
 
     /**
@@ -91,42 +386,299 @@ public class MultilayerPerceptron {
      * training set: 2.1.1. Perform the forward phase so we have the outputs of
      * the network; 2.1.2. Compare the outputs with the expected outputs; 2.1.3.
      * Update the weights of the neurons by performing the backward phase.
+     * <p>
+     * When the batch size is greater than 1, the weight changes of the
+     * patterns are accumulated and the weights are only updated once every
+     * batch, and once more for the remaining patterns at the end of the epoch.
+     * If more than one thread is set, the patterns of every batch are split
+     * among the threads. The optimizer turns the gradients into the changes
+     * of the weights. If it keeps a state, like the velocities of the
+     * momentum, the gradients are accumulated even when the batch size is 1.
+     * <p>
+     * The initial weights and the order of the patterns come from a single
+     * generator created from the seed, so the same seed and patterns always
+     * give the same network. Unless disabled, the patterns are presented in a
+     * new random order every epoch, by shuffling their indexes.
+     * <p>
+     * When there is a validation set, or a part of the training set is held
+     * out for validation, the network is validated every few epochs and the
+     * best weights seen are kept in memory. The training stops when the
+     * validation error has not improved for the early stopping patience, and
+     * the best weights are restored at the end.
+     * <p>
+     * When there is a checkpoint file, the whole state of the training is
+     * saved to it every few epochs or minutes, in the background. A checkpoint
+     * that could not be saved is reported to the listener, which stops the
+     * training unless it handles the failure. A checkpoint that could not be
+     * written is tried again when the next one is due, but one that could not
+     * be encoded turns the checkpoints off for the rest of the training, as
+     * every other one would fail the same way. A resumed training whose
+     * checkpoint already meets the stop conditions trains no more epochs, and
+     * its total time includes the time spent before the checkpoint.
+     *
+     * @param checkpoint The state of the training to resume, or null to start
+     *                   a new training.
      */
-    private void backpropagation() {
+    private void backpropagation(CheckpointFile.Checkpoint checkpoint) {
         int epochs = 1;
-        double meanSquaredErrorSum;
-        double meanSquaredErrorMean;
+        double lossSum;
+        double lossMean = Double.NaN;
+        double learningRate;
+        boolean stopped = false;
 
         if (mProgressListener != null) {
             mProgressListener.onTrainingStarted();
         }
 
         long startTime = System.currentTimeMillis();
-        this.resetWeights();
-
-        do {
-            meanSquaredErrorSum = 0;
-
-            for (Pattern pattern : this.mTrainingSet) {
-                this.setupExpectedOutputs(pattern);
-                this.forward(pattern.getData());
-                this.computeErrors();
-                this.backward();
-                meanSquaredErrorSum += this.getMeanSquaredError();
-                // Log.d("MLP", "meanSquaredErrorSum: " + meanSquaredErrorSum);
+        Random random;
+
+        if (checkpoint == null) {
+            random = new Random(this.mSeed);
+            this.resetWeights(random);
+            mLearningRateSchedule.reset();
+        } else {
+            random = checkpoint.getRandom();
+            epochs = checkpoint.getEpochs();
+            lossMean = checkpoint.getLoss();
+            startTime -= checkpoint.getElapsedTime();
+            mLearningRateSchedule.setState(checkpoint.getScheduleState());
+        }
+
+        List<Pattern> trainingSet = this.mTrainingSet;
+        List<Pattern> validationPatterns = this.mValidationSet;
+
+        if (validationPatterns.isEmpty() && this.mValidationSplit > 0) {
+            trainingSet = new ArrayList<>();
+            validationPatterns = new ArrayList<>();
+            splitTrainingSet(trainingSet, validationPatterns);
+        }
+
+        ValidationSet validationSet = null;
+        DenseNetwork bestNetwork = null;
+        int bestEpochs = 0;
+        mBestValidationError = Double.NaN;
+
+        if (!validationPatterns.isEmpty()) {
+            validationSet = new ValidationSet(validationPatterns);
+        }
+
+        int[] order = new int[trainingSet.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        if (checkpoint != null) {
+            order = checkpoint.getOrder();
+            bestNetwork = checkpoint.getBestNetwork();
+            bestEpochs = checkpoint.getBestEpochs();
+            mBestValidationError = checkpoint.getBestValidationError();
+        }
+
+        CheckpointWriter checkpointWriter = null;
+        if (this.mCheckpointFile != null && (this.mCheckpointInterval > 0 || this.mCheckpointMinutes > 0)) {
+            checkpointWriter = new CheckpointWriter(this.mCheckpointFile, this.mCheckpointInterval,
+                    this.mCheckpointMinutes, epochs, mProgressListener);
+        }
+
+        ParallelTrainer parallelTrainer = null;
+        if (this.mThreadsCount > 1 && this.mBatchSize > 1) {
+            parallelTrainer = new ParallelTrainer(mNetwork, this.mThreadsCount);
+        }
+
+        boolean finished = checkpoint != null && !isTrainingRequired(epochs, lossMean);
+
+        try {
+            while (!finished) {
+                learningRate = mLearningRateSchedule.getLearningRate(this.mLearningRate, epochs - 1,
+                        lossMean);
+
+                if (this.mShufflePatterns) {
+                    shuffle(order, random);
+                }
+
+                if (parallelTrainer != null) {
+                    lossSum = parallelTrainer.trainEpoch(trainingSet, order, this.mBatchSize,
+                            learningRate);
+                } else {
+                    lossSum = this.trainEpoch(trainingSet, order, learningRate);
+                }
+
+                lossMean = lossSum / trainingSet.size();
+                epochs++;
+
+                if ((epochs % 10) == 0 && mProgressListener != null) {
+                    mProgressListener.onTrainingProgressChanged(epochs, lossMean, learningRate);
+                }
+
+                if (validationSet != null && (epochs % this.mValidationInterval) == 0) {
+                    double validationError = validationSet.getLoss(mNetwork);
+
+                    if (!(validationError >= mBestValidationError)) {
+                        mBestValidationError = validationError;
+                        bestEpochs = epochs;
+
+                        if (bestNetwork == null) {
+                            bestNetwork = mNetwork.copy();
+                        } else {
+                            bestNetwork.copyWeightsFrom(mNetwork);
+                        }
+                    }
+
+                    if (mProgressListener != null) {
+                        mProgressListener.onValidationCompleted(epochs, validationError, mBestValidationError);
+                    }
+
+                    stopped = this.mEarlyStoppingPatience > 0
+                            && epochs - bestEpochs >= this.mEarlyStoppingPatience;
+                }
+
+                if (checkpointWriter != null && !stopped && checkpointWriter.isDue(epochs)) {
+                    try {
+                        checkpointWriter.write(CheckpointFile.encode(mNetwork, epochs,
+                                System.currentTimeMillis() - startTime, lossMean, random, order,
+                                mLearningRateSchedule.getState(), mBestValidationError, bestEpochs, bestNetwork),
+                                epochs);
+                    } catch (IOException e) {
+                        CheckpointWriter failedWriter = checkpointWriter;
+                        checkpointWriter = null;
+                        failedWriter.close();
+                        failedWriter.reportPendingWrite();
+                        failedWriter.fail(epochs, e);
+                    }
+                }
+
+                finished = stopped || !isTrainingRequired(epochs, lossMean);
+            }
+        } finally {
+            if (parallelTrainer != null) {
+                parallelTrainer.shutdown();
             }
-            meanSquaredErrorMean = meanSquaredErrorSum / this.mTrainingSet.size();
-            epochs++;
 
-            if ((epochs % 10) == 0 && mProgressListener != null) {
-                mProgressListener.onTrainingProgressChanged(epochs, meanSquaredErrorMean);
+            if (checkpointWriter != null) {
+                checkpointWriter.close();
             }
-        } while ((this.mMinimumError < meanSquaredErrorMean) && (epochs < this.mMaxEpochs));
+        }
+
+        if (bestNetwork != null) {
+            mNetwork.copyWeightsFrom(bestNetwork);
+        }
+
+        if (checkpointWriter != null) {
+            checkpointWriter.reportPendingWrite();
+        }
 
         long totalTime = System.currentTimeMillis() - startTime;
         if (mProgressListener != null) {
-            mProgressListener.onTrainingCompleted(epochs, meanSquaredErrorMean, totalTime / 1000);
+            mProgressListener.onTrainingCompleted(epochs, lossMean, totalTime / 1000);
+        }
+    }
+
+    /**
+     * Returns whether the training must go on for another epoch, which is
+     * the case while the loss is above the minimum error and the maximum
+     * epochs were not reached yet.
+     *
+     * @param epochs   The epochs counter of the training.
+     * @param lossMean The mean loss of the last epoch, or NaN before the first
+     *                 one.
+     * @return True if another epoch must be trained.
+     */
+    private boolean isTrainingRequired(int epochs, double lossMean) {
+        return (this.mMinimumError < lossMean) && (epochs < this.mMaxEpochs);
+    }
+
+    /**
+     * Splits the training set between the patterns used to train the network
+     * and the ones held out to validate it, according to the validation split.
+     * The held out patterns are spread evenly over the training set, so that
+     * every class has about the same share of them when the patterns of each
+     * class are added together.
+     *
+     * @param trainingPatterns   The list that receives the training patterns.
+     * @param validationPatterns The list that receives the validation
+     *                           patterns.
+     */
+    private void splitTrainingSet(List<Pattern> trainingPatterns, List<Pattern> validationPatterns) {
+        for (int i = 0; i < this.mTrainingSet.size(); i++) {
+            if (Math.floor((i + 1) * this.mValidationSplit) > Math.floor(i * this.mValidationSplit)) {
+                validationPatterns.add(this.mTrainingSet.get(i));
+            } else {
+                trainingPatterns.add(this.mTrainingSet.get(i));
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of patterns the network is trained with, which are
+     * the patterns of the training set that are not held out for validation.
+     *
+     * @return The amount of training patterns.
+     */
+    private int getTrainingPatternsCount() {
+        if (!this.mValidationSet.isEmpty() || this.mValidationSplit == 0) {
+            return this.mTrainingSet.size();
+        }
+
+        List<Pattern> trainingPatterns = new ArrayList<>();
+        splitTrainingSet(trainingPatterns, new ArrayList<>());
+        return trainingPatterns.size();
+    }
+
+    /**
+     * Shuffles the indexes of the patterns with the Fisher-Yates algorithm.
+     *
+     * @param order  The indexes of the patterns.
+     * @param random The random number generator of the training.
+     */
+    private static void shuffle(int[] order, Random random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int index = order[i];
+            order[i] = order[j];
+            order[j] = index;
+        }
+    }
+
+    /**
+     * Presents all the patterns of the training set to the network once, in
+     * the current thread.
+     *
+     * @param trainingSet  The patterns of the training set.
+     * @param order        The indexes of the patterns, in the order they are
+     *                     presented to the network.
+     * @param learningRate The learning rate of the epoch.
+     * @return The sum of the losses of all the patterns.
+     */
+    private double trainEpoch(List<Pattern> trainingSet, int[] order, double learningRate) {
+        double lossSum = 0;
+        int patternsInBatch = 0;
+
+        for (int i = 0; i < order.length; i++) {
+            Pattern pattern = trainingSet.get(order[i]);
+            this.forward(pattern);
+            this.computeErrors(pattern);
+
+            if (this.mBatchSize > 1 || mNetwork.hasWeightUpdaters()) {
+                mNetwork.accumulateGradients(pattern);
+
+                if (++patternsInBatch == this.mBatchSize) {
+                    mNetwork.applyGradients(learningRate);
+                    patternsInBatch = 0;
+                }
+            } else {
+                this.backward(pattern, learningRate);
+            }
+
+            lossSum += this.getLoss(pattern);
+            // Log.d("MLP", "lossSum: " + lossSum);
         }
+
+        if (patternsInBatch > 0) {
+            mNetwork.applyGradients(learningRate);
+        }
+
+        return lossSum;
     }
 
     /**
@@ -138,32 +690,23 @@ public class MultilayerPerceptron {
      * the neurons of the output layer are compared to the expected outputs.
      *
      * @param data The data to be inputted.
+     * @return The outputs of the output layer.
      */
-    private void forward(double[] data) {
+    private double[] forward(double[] data) {
         // Log.d("MLP", "forward");
-        Layer previousLayer = null;
-        int i;
-
-        for (Layer currentLayer : mLayers) {
-            i = 0;
-            // Log.d("MLP", currentLayer.getName());
+        return mNetwork.forward(data);
+    }
 
-            if (currentLayer instanceof InputLayer) {
-                for (Neuron neuron : currentLayer.getNeurons()) {
-                    neuron.setInputTerminalValue(0, data[i++]);
-                    neuron.calculateOutput();
-                }
-            } else {
-                for (Neuron neuron : currentLayer.getNeurons()) {
-                    for (Neuron previousNeuron : previousLayer.getNeurons()) {
-                        neuron.setInputTerminalValue(i++, previousNeuron.getOutput());
-                    }
-                    i = 0;
-                    neuron.calculateOutput();
-                }
-            }
-            previousLayer = currentLayer;
-        }
+    /**
+     * Performs the forward phase of the multilayer perceptron over the data
+     * of a pattern, using its packed data if it has any.
+     *
+     * @param pattern The pattern to be inputted.
+     * @return The outputs of the output layer.
+     * @see #forward(double[])
+     */
+    private double[] forward(Pattern pattern) {
+        return mNetwork.forward(pattern);
     }
 
     /**
@@ -173,67 +716,36 @@ public class MultilayerPerceptron {
      * the nodes of the hidden layers is calculated using the error of the next
      * layer nodes connected to it, weighted by the weights of the connections
      * between them.
-     */
-    private void backward() {
-        // Log.d("MLP", "backward");
-        Layer currentLayer;
-
-        for (int i = (mLayers.size() - 1); i > 0; i--) {
-            currentLayer = this.mLayers.get(i);
-
-            for (Neuron neuron : currentLayer.getNeurons()) {
-                neuron.adjustWeights(this.mLearningRate);
-            }
-        }
-    }
-
-    /**
-     * Setups the expected outputs of the neurons in the output layer.
      *
-     * @param pattern The pattern with the expected outputs.
+     * @param pattern      The pattern used in the forward phase.
+     * @param learningRate The learning rate of the current epoch.
      */
-    private void setupExpectedOutputs(Pattern pattern) {
-        // Log.d("MLP", "setupExpectedOutputs");
-        OutputLayer outputLayer = (OutputLayer) mLayers.get(KEY_OUTPUT_LAYER);
-        int i = 0;
-
-        for (Neuron neuron : outputLayer.getNeurons()) {
-            neuron.setExpectedOutput(pattern.getExpectedOutput()[i]);
-            i++;
-        }
+    private void backward(Pattern pattern, double learningRate) {
+        // Log.d("MLP", "backward");
+        mNetwork.adjustWeights(pattern, learningRate);
     }
 
     /**
      * Calculates the errors of all the neurons of the neural network, starting
      * from the output layer.
+     *
+     * @param pattern The pattern with the expected outputs.
      */
-    private void computeErrors() {
+    private void computeErrors(Pattern pattern) {
         // Log.d("MLP", "computeErrors");
-        Layer currentLayer;
-
-        for (int i = (mLayers.size() - 1); i > 0; i--) {
-            currentLayer = this.mLayers.get(i);
-
-            for (Neuron neuron : currentLayer.getNeurons()) {
-                neuron.computeError();
-            }
-        }
+        mNetwork.computeErrors(pattern.getExpectedOutput());
     }
 
     /**
      * Resets the weights of the hidden and output layers by assigning them
-     * random values.
+     * random values drawn by their weight initializers, and their biases to
+     * zero.
+     *
+     * @param random The random number generator of the training.
      */
-    private void resetWeights() {
+    private void resetWeights(Random random) {
         // Log.d("MLP", "resetWeights");
-        for (Layer layer : this.mLayers) {
-
-            if (!(layer instanceof InputLayer)) {
-                for (Neuron neuron : layer.getNeurons()) {
-                    neuron.resetWeights();
-                }
-            }
-        }
+        mNetwork.resetWeights(random);
     }
 
     /**
@@ -249,6 +761,20 @@ public class MultilayerPerceptron {
         // System.out.println("Pattern added! " + mTrainingSet.size());
     }
 
+    /**
+     * Adds a new pattern with packed data to the training set. Patterns whose
+     * values have only two levels, like normalized pixels, take one bit per
+     * value instead of a double, and train faster.
+     *
+     * @param name           The name of the pattern.
+     * @param data           The packed pattern data.
+     * @param expectedOutput The expected output of the pattern.
+     * @see BinaryInput#pack(double[])
+     */
+    public void addPattern(String name, BinaryInput data, double[] expectedOutput) {
+        mTrainingSet.add(new Pattern(name, data, expectedOutput));
+    }
+
     /**
      * Removes all patterns from the training set.
      */
@@ -257,97 +783,257 @@ public class MultilayerPerceptron {
     }
 
     /**
-     * Redefines the number of neurons in the hidden layer.
+     * Adds a new pattern to the validation set. The patterns of the validation
+     * set are never trained, but evaluated every few epochs to find the
+     * weights that generalize best. When there is any, the validation split is
+     * ignored.
+     *
+     * @param name           The name of the pattern.
+     * @param data           The pattern data.
+     * @param expectedOutput The expected output of the pattern.
+     */
+    public void addValidationPattern(String name, double[] data, double[] expectedOutput) {
+        mValidationSet.add(new Pattern(name, data, expectedOutput));
+    }
+
+    /**
+     * Adds a new pattern with packed data to the validation set.
+     *
+     * @param name           The name of the pattern.
+     * @param data           The packed pattern data.
+     * @param expectedOutput The expected output of the pattern.
+     * @see #addValidationPattern(String, double[], double[])
+     */
+    public void addValidationPattern(String name, BinaryInput data, double[] expectedOutput) {
+        mValidationSet.add(new Pattern(name, data, expectedOutput));
+    }
+
+    /**
+     * Removes all patterns from the validation set.
+     */
+    public void clearValidationPatterns() {
+        mValidationSet.clear();
+    }
+
+    /**
+     * Redefines the number of neurons in every hidden layer.
      *
-     * @param newNeuronsCount The new number of neurons in the hidden layer.
+     * @param newNeuronsCount The new number of neurons in the hidden layers.
      */
     public void redefineHiddenLayerNeurons(int newNeuronsCount) {
-        InputLayer inputLayer = (InputLayer) mLayers.get(KEY_INPUT_LAYER);
-        HiddenLayer hiddenLayer = (HiddenLayer) mLayers.get(KEY_HIDDEN_LAYER);
-        OutputLayer outputLayer = (OutputLayer) mLayers.get(KEY_OUTPUT_LAYER);
+        int[] hiddenLayerSizes = new int[mNetwork.getLayersCount() - 1];
+        Arrays.fill(hiddenLayerSizes, newNeuronsCount);
+        redefineHiddenLayers(hiddenLayerSizes);
+    }
+
+    /**
+     * Redefines the amount of hidden layers and their numbers of neurons. The
+     * input and output layers are kept. The hidden layers that already exist
+     * keep their activation functions and weight initializers, and the new
+     * ones take the ones of the last hidden layer. All the weights must be
+     * trained again.
+     *
+     * @param hiddenLayerSizes The new number of neurons in each hidden layer.
+     */
+    public void redefineHiddenLayers(int... hiddenLayerSizes) {
+        int hiddenLayersCount = mNetwork.getLayersCount() - 1;
+        ActivationFunction[] oldActivationFunctions = mNetwork.getActivationFunctions();
+        WeightInitializer[] oldWeightInitializers = mNetwork.getWeightInitializers();
+
+        int layersCount = hiddenLayerSizes.length + 1;
+        int[] layerSizes = new int[layersCount + 1];
+        ActivationFunction[] activationFunctions = new ActivationFunction[layersCount];
+        WeightInitializer[] weightInitializers = new WeightInitializer[layersCount];
 
-        hiddenLayer.initialize(newNeuronsCount, inputLayer.getNeuronsCount());
-        outputLayer.initialize(outputLayer.getNeuronsCount(), newNeuronsCount);
+        layerSizes[0] = mNetwork.getInputsCount();
+        layerSizes[layersCount] = mNetwork.getOutputLayer().getNeuronsCount();
+        activationFunctions[layersCount - 1] = oldActivationFunctions[hiddenLayersCount];
+        weightInitializers[layersCount - 1] = oldWeightInitializers[hiddenLayersCount];
+
+        for (int i = 0; i < hiddenLayerSizes.length; i++) {
+            int oldLayer = Math.max(0, Math.min(i, hiddenLayersCount - 1));
+            layerSizes[i + 1] = hiddenLayerSizes[i];
+            activationFunctions[i] = hiddenLayersCount > 0 ? oldActivationFunctions[oldLayer]
+                    : ActivationFunctions.DEFAULT;
+            weightInitializers[i] = hiddenLayersCount > 0 ? oldWeightInitializers[oldLayer]
+                    : WeightInitializers.LEGACY;
+        }
+
+        mNetwork = new DenseNetwork(mNetwork.getPrecision(), activationFunctions, weightInitializers, layerSizes);
+        mNetwork.setOptimizer(mOptimizer);
     }
 
     /**
-     * Saves the weights of the neural network to a file.
+     * Saves the topology and the weights of the neural network to a model
+     * file.
      *
      * @param file The file in which to save the weights.
      */
     public void saveWeightsToFile(File file) {
         try {
-            BufferedOutputStream output = new BufferedOutputStream(new FileOutputStream(file));
-
-            for (Layer layer : this.mLayers) {
-                if (!(layer instanceof InputLayer)) {
-                    for (Neuron neuron : layer.getNeurons()) {
-                        byte[] bytes = Utils.toByteArray(neuron.getWeights());
-
-                        output.write(bytes);
-                    }
-                }
-            }
-
-            output.close();
+            ModelFile.write(mNetwork, file);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Loads the neural network's weights from a file.
+     * Loads the neural network's weights from a file, converting them to the
+     * precision of this network if needed. Model files whose topology is
+     * different from the topology of this network are rejected, as well as
+     * weights files without topology whose size does not match it, in which
+     * case the current weights are kept.
      *
      * @param file The file to be loaded.
      */
     public void loadWeightsFromFile(File file) {
         try {
-            InputStream input = null;
-            try {
-                byte[] result = new byte[(int) file.length()];
-                int totalBytesRead = 0;
-                input = new BufferedInputStream(new FileInputStream(file));
-
-                while (totalBytesRead < result.length) {
-                    int bytesRemaining = result.length - totalBytesRead;
-
-                    int bytesRead = input.read(result, totalBytesRead, bytesRemaining);
-                    if (bytesRead > 0) {
-                        totalBytesRead = totalBytesRead + bytesRead;
-                    }
-                }
-
-                totalBytesRead = 0;
-                for (Layer layer : this.mLayers) {
-                    if (!(layer instanceof InputLayer)) {
-                        for (Neuron neuron : layer.getNeurons()) {
-                            int to = totalBytesRead + (neuron.getWeights().length * 8);
-                            byte[] buffer = Arrays.copyOfRange(result, totalBytesRead, to);
-
-                            double[] weights = Utils.toDoubleArray(buffer);
-                            neuron.setWeights(weights);
-                            totalBytesRead += (neuron.getWeights().length * 8);
-                        }
-                    }
-                }
-            } finally {
-                if (input != null) {
-                    input.close();
-                }
-            }
+            ModelFile.readInto(file, mNetwork);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Returns the Mean Squared Error of this neural network.
+     * Returns the loss of this neural network, which is the mean squared
+     * error, or the cross-entropy when the output layer uses the softmax.
+     *
+     * @param pattern The pattern with the expected outputs.
+     * @return The loss of this neural network.
+     */
+    private double getLoss(Pattern pattern) {
+        return mNetwork.getLoss(pattern.getExpectedOutput());
+    }
+
+    /**
+     * Returns the precision of the weights of this neural network.
+     *
+     * @return The precision of the weights of this neural network.
+     */
+    public final Precision getPrecision() {
+        return mNetwork.getPrecision();
+    }
+
+    /**
+     * Returns the amount of neurons in each layer of this neural network,
+     * starting with the input layer and ending with the output layer.
      *
-     * @return The Mean Squared Error of this neural network.
+     * @return The sizes of the layers of this neural network.
      */
-    private double getMeanSquaredError() {
-        OutputLayer outputLayer = (OutputLayer) mLayers.get(KEY_OUTPUT_LAYER);
-        return outputLayer.getMeanSquaredError();
+    public final int[] getLayerSizes() {
+        return mNetwork.getLayerSizes();
+    }
+
+    /**
+     * Returns the activation function of each layer of this neural network,
+     * except the input layer.
+     *
+     * @return The activation functions of the layers.
+     */
+    public final ActivationFunction[] getActivationFunctions() {
+        return mNetwork.getActivationFunctions();
+    }
+
+    /**
+     * Returns the weight initializer of each layer of this neural network,
+     * except the input layer.
+     *
+     * @return The weight initializers of the layers.
+     */
+    public final WeightInitializer[] getWeightInitializers() {
+        return mNetwork.getWeightInitializers();
+    }
+
+    /**
+     * Returns the activation function of the first hidden layer of this
+     * neural network.
+     *
+     * @return The activation function of the first hidden layer.
+     */
+    public final ActivationFunction getHiddenActivationFunction() {
+        return mNetwork.getLayer(0).getActivationFunction();
+    }
+
+    /**
+     * Returns the activation function of the output layer of this neural
+     * network.
+     *
+     * @return The activation function of the output layer.
+     */
+    public final ActivationFunction getOutputActivationFunction() {
+        return mNetwork.getOutputLayer().getActivationFunction();
+    }
+
+    /**
+     * Returns whether the output layer of this neural network uses the
+     * softmax, in which case its outputs are probabilities that add up to 1,
+     * the network is trained with the cross-entropy loss and the expected
+     * outputs must also add up to 1.
+     *
+     * @return True if the output layer uses the softmax.
+     */
+    public final boolean hasSoftmaxOutput() {
+        return mNetwork.getOutputLayer().hasSoftmax();
+    }
+
+    /**
+     * Returns the weight initializer of the first hidden layer of this neural
+     * network.
+     *
+     * @return The weight initializer of the first hidden layer.
+     */
+    public final WeightInitializer getHiddenWeightInitializer() {
+        return mNetwork.getLayer(0).getWeightInitializer();
+    }
+
+    /**
+     * Returns the weight initializer of the output layer of this neural
+     * network.
+     *
+     * @return The weight initializer of the output layer.
+     */
+    public final WeightInitializer getOutputWeightInitializer() {
+        return mNetwork.getOutputLayer().getWeightInitializer();
+    }
+
+    /**
+     * Returns the optimizer that updates the weights of this neural network.
+     *
+     * @return The optimizer of this neural network.
+     */
+    public final Optimizer getOptimizer() {
+        return mOptimizer;
+    }
+
+    /**
+     * Sets the optimizer that updates the weights of this neural network.
+     * The state of the previous optimizer is discarded.
+     *
+     * @param optimizer The new optimizer of this neural network.
+     */
+    public final void setOptimizer(Optimizer optimizer) {
+        this.mOptimizer = optimizer;
+        mNetwork.setOptimizer(optimizer);
+    }
+
+    /**
+     * Returns the schedule that decides the learning rate of every epoch of
+     * the training.
+     *
+     * @return The learning rate schedule of this neural network.
+     */
+    public final LearningRateSchedule getLearningRateSchedule() {
+        return mLearningRateSchedule;
+    }
+
+    /**
+     * Sets the schedule that decides the learning rate of every epoch of the
+     * training, starting from the learning rate of this neural network.
+     *
+     * @param learningRateSchedule The new learning rate schedule.
+     */
+    public final void setLearningRateSchedule(LearningRateSchedule learningRateSchedule) {
+        this.mLearningRateSchedule = learningRateSchedule;
     }
 
     /**
@@ -406,4 +1092,267 @@ public class MultilayerPerceptron {
     public final void setMaxEpochs(int maxEpochs) {
         this.mMaxEpochs = maxEpochs;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the amount of patterns whose weight changes are accumulated
+     * before the weights are updated.
+     *
+     * @return The batch size of a training in this neural network.
+     */
+    public final int getBatchSize() {
+        return mBatchSize;
+    }
+
+    /**
+     * Sets the amount of patterns whose weight changes are accumulated before
+     * the weights are updated. The weight changes are summed, so the learning
+     * rate keeps the same scale it has when the weights are updated after
+     * every pattern, which is what a batch size of 1 does.
+     *
+     * @param batchSize The new batch size of a training in this neural
+     *                  network.
+     */
+    public final void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1.");
+        }
+
+        this.mBatchSize = batchSize;
+    }
+
+    /**
+     * Returns the seed of the random number generator that draws the initial
+     * weights and shuffles the patterns of every training.
+     *
+     * @return The seed of this neural network.
+     */
+    public final long getSeed() {
+        return mSeed;
+    }
+
+    /**
+     * Sets the seed of the random number generator that draws the initial
+     * weights and shuffles the patterns of every training. Trainings with the
+     * same seed, patterns and parameters give the same network.
+     *
+     * @param seed The new seed of this neural network.
+     */
+    public final void setSeed(long seed) {
+        this.mSeed = seed;
+    }
+
+    /**
+     * Returns whether the patterns are presented in a new random order every
+     * epoch.
+     *
+     * @return True if the patterns are shuffled every epoch.
+     */
+    public final boolean isShufflePatterns() {
+        return mShufflePatterns;
+    }
+
+    /**
+     * Sets whether the patterns are presented in a new random order every
+     * epoch, or in the order they were added. Shuffling the patterns usually
+     * makes the training converge in fewer epochs.
+     *
+     * @param shufflePatterns True to shuffle the patterns every epoch.
+     */
+    public final void setShufflePatterns(boolean shufflePatterns) {
+        this.mShufflePatterns = shufflePatterns;
+    }
+
+    /**
+     * Returns the fraction of the training set held out for validation when
+     * there is no validation set.
+     *
+     * @return The validation split of this neural network.
+     */
+    public final double getValidationSplit() {
+        return mValidationSplit;
+    }
+
+    /**
+     * Sets the fraction of the training set held out for validation when
+     * there is no validation set. The held out patterns are not trained. A
+     * split of 0 holds out no patterns.
+     *
+     * @param validationSplit The new validation split, from 0 inclusive to 1
+     *                        exclusive.
+     */
+    public final void setValidationSplit(double validationSplit) {
+        if (validationSplit < 0 || validationSplit >= 1) {
+            throw new IllegalArgumentException("The validation split must be between 0 and 1.");
+        }
+
+        this.mValidationSplit = validationSplit;
+    }
+
+    /**
+     * Returns the amount of epochs between two validations.
+     *
+     * @return The validation interval of this neural network.
+     */
+    public final int getValidationInterval() {
+        return mValidationInterval;
+    }
+
+    /**
+     * Sets the amount of epochs between two validations. Every validation
+     * evaluates the whole validation set, so a longer interval makes the
+     * training faster, but the best weights are looked for among fewer
+     * epochs.
+     *
+     * @param validationInterval The new validation interval of this neural
+     *                           network.
+     */
+    public final void setValidationInterval(int validationInterval) {
+        if (validationInterval < 1) {
+            throw new IllegalArgumentException("The validation interval must be at least 1.");
+        }
+
+        this.mValidationInterval = validationInterval;
+    }
+
+    /**
+     * Returns the amount of epochs the training goes on without the
+     * validation error improving.
+     *
+     * @return The early stopping patience of this neural network.
+     */
+    public final int getEarlyStoppingPatience() {
+        return mEarlyStoppingPatience;
+    }
+
+    /**
+     * Sets the amount of epochs the training goes on without the validation
+     * error improving before it stops. The patience is only checked when the
+     * network is validated, so it should be a multiple of the validation
+     * interval. A patience of 0 never stops the training early.
+     *
+     * @param earlyStoppingPatience The new early stopping patience of this
+     *                              neural network.
+     */
+    public final void setEarlyStoppingPatience(int earlyStoppingPatience) {
+        if (earlyStoppingPatience < 0) {
+            throw new IllegalArgumentException("The early stopping patience can't be negative.");
+        }
+
+        this.mEarlyStoppingPatience = earlyStoppingPatience;
+    }
+
+    /**
+     * Returns the lowest validation error of the last training, whose weights
+     * are the ones this network has after it.
+     *
+     * @return The best validation error, or NaN if the last training had no
+     * validation.
+     */
+    public final double getBestValidationError() {
+        return mBestValidationError;
+    }
+
+    /**
+     * Returns the amount of threads used to train this neural network.
+     *
+     * @return The amount of threads used to train this neural network.
+     */
+    public final int getThreadsCount() {
+        return mThreadsCount;
+    }
+
+    /**
+     * Sets the amount of threads used to train this neural network. The
+     * patterns of every batch are split among the threads, and each thread
+     * needs its own copy of the outputs, errors and gradients of the network.
+     * <p>
+     * The threads are only used when the batch size is greater than 1. With a
+     * batch size of 1 the weights change after every pattern, so there is
+     * nothing to split, and the training runs in the calling thread whatever
+     * the amount of threads is.
+     *
+     * @param threadsCount The new amount of threads used to train this neural
+     *                     network.
+     */
+    public final void setThreadsCount(int threadsCount) {
+        if (threadsCount < 1) {
+            throw new IllegalArgumentException("The threads count must be at least 1.");
+        }
+
+        this.mThreadsCount = threadsCount;
+    }
+
+    /**
+     * Returns the file in which the checkpoints of the training are saved.
+     *
+     * @return The checkpoint file, or null if no checkpoints are saved.
+     */
+    public final File getCheckpointFile() {
+        return mCheckpointFile;
+    }
+
+    /**
+     * Sets the file in which the checkpoints of the training are saved. Each
+     * checkpoint has the weights, the optimizer and learning rate schedule
+     * state, the shuffling generator and the best validation weights, so
+     * {@link #resume(File, NetworkTrainingListener)} can continue the training
+     * exactly where it stopped. A checkpoint replaces the previous one
+     * atomically, so the file is never left half written.
+     *
+     * @param checkpointFile The checkpoint file, or null to save no
+     *                       checkpoints.
+     */
+    public final void setCheckpointFile(File checkpointFile) {
+        this.mCheckpointFile = checkpointFile;
+    }
+
+    /**
+     * Returns the amount of epochs between the checkpoints of the training.
+     *
+     * @return The amount of epochs between the checkpoints, or 0 if they are
+     * not counted in epochs.
+     */
+    public final int getCheckpointInterval() {
+        return mCheckpointInterval;
+    }
+
+    /**
+     * Sets the amount of epochs between the checkpoints of the training.
+     *
+     * @param checkpointInterval The amount of epochs between the checkpoints,
+     *                           or 0 to not count them in epochs.
+     */
+    public final void setCheckpointInterval(int checkpointInterval) {
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("The checkpoint interval cannot be negative.");
+        }
+
+        this.mCheckpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Returns the amount of minutes between the checkpoints of the training.
+     *
+     * @return The amount of minutes between the checkpoints, or 0 if they are
+     * not counted in minutes.
+     */
+    public final int getCheckpointMinutes() {
+        return mCheckpointMinutes;
+    }
+
+    /**
+     * Sets the amount of minutes between the checkpoints of the training. A
+     * checkpoint is only saved at the end of an epoch, so it may come a bit
+     * later.
+     *
+     * @param checkpointMinutes The amount of minutes between the checkpoints,
+     *                          or 0 to not count them in minutes.
+     */
+    public final void setCheckpointMinutes(int checkpointMinutes) {
+        if (checkpointMinutes < 0) {
+            throw new IllegalArgumentException("The checkpoint minutes cannot be negative.");
+        }
+
+        this.mCheckpointMinutes = checkpointMinutes;
+    }
+}
@@ -1,5 +1,9 @@
 package com.kansus.kmlp.core;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * A listener that notifies its creator about changes in the neural network training progress.
  */
@@ -10,7 +14,67 @@ public interface NetworkTrainingListener {
      */
     void onTrainingStarted();
 
-    void onTrainingProgressChanged(int epochs, double error);
+    /**
+     * Invoked every few epochs with the progress of the training.
+     *
+     * @param epochs The amount of epochs done.
+     * @param error  The mean loss of the last epoch, which is the mean squared error, or the
+     *               cross-entropy when the output layer uses the softmax.
+     */
+    default void onTrainingProgressChanged(int epochs, double error) {
+    }
+
+    /**
+     * Invoked every few epochs with the progress of the training and the learning rate of the
+     * last epoch, which changes along the training when the network has a learning rate schedule.
+     * By default, it invokes {@link #onTrainingProgressChanged(int, double)}.
+     *
+     * @param epochs       The amount of epochs done.
+     * @param error        The mean loss of the last epoch.
+     * @param learningRate The learning rate of the last epoch.
+     */
+    default void onTrainingProgressChanged(int epochs, double error, double learningRate) {
+        onTrainingProgressChanged(epochs, error);
+    }
+
+    /**
+     * Invoked every time the network is validated during the training.
+     *
+     * @param epochs    The amount of epochs done.
+     * @param error     The mean loss of the network over the validation set.
+     * @param bestError The lowest mean loss over the validation set so far, whose
+     *                  weights are restored at the end of the training.
+     */
+    default void onValidationCompleted(int epochs, double error, double bestError) {
+    }
+
+    /**
+     * Invoked every time a checkpoint of the training is saved. It's invoked by the thread that
+     * writes the checkpoints, not by the thread of the training.
+     *
+     * @param epochs The amount of epochs done when the checkpoint was taken.
+     * @param file   The checkpoint file.
+     */
+    default void onCheckpointSaved(int epochs, File file) {
+    }
+
+    /**
+     * Invoked by the thread of the training when a checkpoint could not be saved. The training
+     * goes on if this method returns, so a listener that only logs the failure keeps the training
+     * running without the protection of the checkpoints. When the checkpoint could not be written
+     * to the disk, the next checkpoint is tried when it is due. When it could not even be encoded,
+     * because it is too big or the network has an activation function or a weight initializer
+     * that can't be saved, every other checkpoint would fail the same way, so no more checkpoints
+     * are taken for the rest of the training. By default, it stops the training by throwing an
+     * {@link UncheckedIOException} with the failure.
+     *
+     * @param epochs    The amount of epochs done when the checkpoint was taken.
+     * @param file      The checkpoint file.
+     * @param exception The failure.
+     */
+    default void onCheckpointFailed(int epochs, File file, IOException exception) {
+        throw new UncheckedIOException("The training checkpoint \"" + file + "\" could not be saved.", exception);
+    }
 
     void onTrainingCompleted(int epochs, double error, long totalTime);
 }
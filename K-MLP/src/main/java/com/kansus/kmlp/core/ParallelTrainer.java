@@ -0,0 +1,224 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.model.Pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Trains a network using several threads. Every mini-batch is split into shards that are processed
+ * at the same time by replicas of the network, each one with its own outputs, errors and gradients.
+ * When all the shards of a batch are done, the gradients of the replicas are summed and applied to
+ * the shared weights, also in parallel, before the next batch starts.
+ */
+class ParallelTrainer {
+
+    /**
+     * The minimum amount of weights summed by a single reduction task.
+     */
+    private static final int MIN_REDUCTION_LENGTH = 8192;
+
+    private final DenseNetwork mNetwork;
+
+    private final DenseNetwork[] mReplicas;
+
+    private final double[] mShardErrors;
+
+    private final ForkJoinPool mPool;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param network      The network to be trained.
+     * @param threadsCount The amount of threads used in the training.
+     */
+    ParallelTrainer(DenseNetwork network, int threadsCount) {
+        this.mNetwork = network;
+        this.mReplicas = new DenseNetwork[threadsCount];
+        this.mShardErrors = new double[threadsCount];
+        this.mPool = new ForkJoinPool(threadsCount);
+
+        for (int i = 0; i < threadsCount; i++) {
+            mReplicas[i] = network.createReplica();
+        }
+    }
+
+    /**
+     * Trains the network with all the patterns of the training set once.
+     *
+     * @param trainingSet  The training set.
+     * @param order        The indexes of the patterns of the training set, in the order they are
+     *                     presented to the network.
+     * @param batchSize    The amount of patterns of each mini-batch.
+     * @param learningRate The learning rate of the neural network.
+     * @return The sum of the losses of all the patterns.
+     */
+    double trainEpoch(List<Pattern> trainingSet, int[] order, int batchSize, double learningRate) {
+        double lossSum = 0;
+
+        for (int from = 0; from < order.length; from += batchSize) {
+            int to = Math.min(from + batchSize, order.length);
+            lossSum += trainBatch(trainingSet, order, from, to, learningRate);
+        }
+
+        return lossSum;
+    }
+
+    /**
+     * Trains the network with a mini-batch of patterns, updating the weights once at the end.
+     *
+     * @param trainingSet  The training set.
+     * @param order        The order of the patterns of the training set.
+     * @param from         The position in the order of the first pattern of the batch.
+     * @param to           The position in the order after the last pattern of the batch.
+     * @param learningRate The learning rate of the neural network.
+     * @return The sum of the losses of the patterns of the batch.
+     */
+    private double trainBatch(List<Pattern> trainingSet, int[] order, int from, int to, double learningRate) {
+        int shardsCount = Math.min(mReplicas.length, to - from);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(shardsCount);
+
+        for (int shard = 0; shard < shardsCount; shard++) {
+            int shardFrom = from + (to - from) * shard / shardsCount;
+            int shardTo = from + (to - from) * (shard + 1) / shardsCount;
+            tasks.add(new ShardTask(shard, trainingSet, order, shardFrom, shardTo));
+        }
+
+        invokeAll(tasks);
+        tasks.clear();
+
+        int updatesCount = mNetwork.nextUpdate();
+
+        for (int layer = 0; layer < mNetwork.getLayersCount(); layer++) {
+            int weightsCount = mNetwork.getLayer(layer).getWeightsCount();
+            int length = Math.max(MIN_REDUCTION_LENGTH, weightsCount / mReplicas.length + 1);
+
+            for (int start = 0; start < weightsCount; start += length) {
+                int end = Math.min(start + length, weightsCount);
+                tasks.add(new ReductionTask(layer, start, end, shardsCount, learningRate, updatesCount));
+            }
+        }
+
+        invokeAll(tasks);
+
+        double lossSum = 0;
+        for (int shard = 0; shard < shardsCount; shard++) {
+            lossSum += mShardErrors[shard];
+        }
+
+        return lossSum;
+    }
+
+    /**
+     * Runs the given tasks in the pool of this trainer and waits for all of them to complete.
+     *
+     * @param tasks The tasks to be run.
+     */
+    private void invokeAll(List<ForkJoinTask<?>> tasks) {
+        mPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    /**
+     * Stops the threads used by this trainer.
+     */
+    void shutdown() {
+        mPool.shutdown();
+    }
+
+    /**
+     * Performs the forward and error computation phases for a shard of a batch, accumulating the
+     * gradients in the replica of the shard.
+     */
+    private class ShardTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int mShard;
+
+        private final List<Pattern> mTrainingSet;
+
+        private final int[] mOrder;
+
+        private final int mFrom;
+
+        private final int mTo;
+
+        ShardTask(int shard, List<Pattern> trainingSet, int[] order, int from, int to) {
+            this.mShard = shard;
+            this.mTrainingSet = trainingSet;
+            this.mOrder = order;
+            this.mFrom = from;
+            this.mTo = to;
+        }
+
+        @Override
+        protected void compute() {
+            DenseNetwork replica = mReplicas[mShard];
+            double lossSum = 0;
+
+            for (int i = mFrom; i < mTo; i++) {
+                Pattern pattern = mTrainingSet.get(mOrder[i]);
+
+                replica.forward(pattern);
+                replica.computeErrors(pattern.getExpectedOutput());
+                replica.accumulateGradients(pattern);
+                lossSum += replica.getLoss(pattern.getExpectedOutput());
+            }
+
+            mShardErrors[mShard] = lossSum;
+        }
+    }
+
+    /**
+     * Sums the gradients of a range of weights of a layer over all the replicas, applies them to
+     * the shared weights through the optimizer of the layer and clears them for the next batch.
+     */
+    private class ReductionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int mLayer;
+
+        private final int mStart;
+
+        private final int mEnd;
+
+        private final int mShardsCount;
+
+        private final double mLearningRate;
+
+        private final int mUpdatesCount;
+
+        ReductionTask(int layer, int start, int end, int shardsCount, double learningRate, int updatesCount) {
+            this.mLayer = layer;
+            this.mStart = start;
+            this.mEnd = end;
+            this.mShardsCount = shardsCount;
+            this.mLearningRate = learningRate;
+            this.mUpdatesCount = updatesCount;
+        }
+
+        @Override
+        protected void compute() {
+            double[] sum = mReplicas[0].getLayer(mLayer).getGradients();
+
+            for (int shard = 1; shard < mShardsCount; shard++) {
+                double[] gradients = mReplicas[shard].getLayer(mLayer).getGradients();
+
+                for (int i = mStart; i < mEnd; i++) {
+                    sum[i] += gradients[i];
+                    gradients[i] = 0;
+                }
+            }
+
+            mNetwork.getLayer(mLayer).applyGradients(sum, mStart, mEnd, mLearningRate, mUpdatesCount);
+
+            for (int i = mStart; i < mEnd; i++) {
+                sum[i] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.kansus.kmlp.core;
+
+/**
+ * The floating point precision in which a neural network keeps its weights.
+ */
+public enum Precision {
+
+    /**
+     * 64 bits weights. This is the default precision.
+     */
+    DOUBLE,
+
+    /**
+     * 32 bits weights, which take half the memory of the double precision ones and make the dot
+     * products of the forward phase process twice as many weights per vector instruction. The
+     * outputs, errors and gradients are still calculated in double precision.
+     */
+    FLOAT
+}
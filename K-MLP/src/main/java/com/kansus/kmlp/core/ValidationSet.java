@@ -0,0 +1,62 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.model.Pattern;
+
+import java.util.List;
+
+/**
+ * The patterns held out of the training to measure how well the network generalizes. Their
+ * inputs are unpacked once into a single matrix, so every validation goes through the batch
+ * evaluation of the network instead of evaluating the patterns one by one.
+ */
+class ValidationSet {
+
+    private final int mSamplesCount;
+
+    private final int mOutputsCount;
+
+    private final double[] mInputs;
+
+    private final double[] mExpectedOutputs;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param patterns The patterns of the validation set.
+     */
+    ValidationSet(List<Pattern> patterns) {
+        int inputsCount = patterns.get(0).getData().length;
+        int outputsCount = patterns.get(0).getExpectedOutput().length;
+
+        this.mSamplesCount = patterns.size();
+        this.mOutputsCount = outputsCount;
+        this.mInputs = new double[mSamplesCount * inputsCount];
+        this.mExpectedOutputs = new double[mSamplesCount * outputsCount];
+
+        for (int s = 0; s < mSamplesCount; s++) {
+            Pattern pattern = patterns.get(s);
+            System.arraycopy(pattern.getData(), 0, mInputs, s * inputsCount, inputsCount);
+            System.arraycopy(pattern.getExpectedOutput(), 0, mExpectedOutputs, s * outputsCount, outputsCount);
+        }
+    }
+
+    /**
+     * Returns the mean over the patterns of this set of the loss of the network, calculated as in
+     * the training.
+     *
+     * @param network The network to be validated.
+     * @return The mean loss of the network over this set.
+     */
+    double getLoss(DenseNetwork network) {
+        double[] outputs = network.evaluateBatch(mInputs, mSamplesCount);
+        DenseLayer outputLayer = network.getOutputLayer();
+        double lossSum = 0;
+
+        for (int s = 0; s < mSamplesCount; s++) {
+            int offset = s * mOutputsCount;
+            lossSum += outputLayer.getLoss(mExpectedOutputs, offset, outputs, offset);
+        }
+
+        return lossSum / mSamplesCount;
+    }
+}
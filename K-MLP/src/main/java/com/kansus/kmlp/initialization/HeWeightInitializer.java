@@ -0,0 +1,19 @@
+package com.kansus.kmlp.initialization;
+
+import java.util.Random;
+
+/**
+ * He initialization, with weights drawn from a normal distribution with mean 0 and standard
+ * deviation sqrt(2 / inputs). It makes up for the half of the inputs zeroed by the rectified
+ * linear units, which Xavier initialization does not.
+ */
+public class HeWeightInitializer implements WeightInitializer {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double nextWeight(Random random, int inputsCount, int neuronsCount) {
+        return random.nextGaussian() * Math.sqrt(2.0 / inputsCount);
+    }
+}
@@ -0,0 +1,28 @@
+package com.kansus.kmlp.initialization;
+
+import java.util.Random;
+
+/**
+ * The original initialization, with weights drawn uniformly from [0, 1). As all the weights are
+ * positive, the layers initialized by it keep the summed inputs divided by twice their amount of
+ * neurons and have no biases, so that the networks trained before the biases existed keep their
+ * outputs.
+ */
+public class LegacyWeightInitializer implements WeightInitializer {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double nextWeight(Random random, int inputsCount, int neuronsCount) {
+        return random.nextDouble();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean usesBiases() {
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+package com.kansus.kmlp.initialization;
+
+import java.util.Random;
+
+/**
+ * A strategy that draws the initial weights of the connections of a layer, usually from a
+ * distribution scaled by the amount of inputs and outputs of the layer so that the summed inputs
+ * of the neurons start in the range where the activation function is not saturated.
+ */
+public interface WeightInitializer {
+
+    /**
+     * Draws the initial weight of a connection of a layer.
+     *
+     * @param random       The random number generator of the training.
+     * @param inputsCount  The amount of inputs the neurons of the layer have.
+     * @param neuronsCount The amount of neurons in the layer.
+     * @return The initial weight.
+     */
+    double nextWeight(Random random, int inputsCount, int neuronsCount);
+
+    /**
+     * Returns whether the layers initialized by this strategy have a bias per neuron, added to the
+     * weighted sum of the inputs. The layers without biases divide the weighted sum by twice their
+     * amount of neurons instead, as all the networks did before the biases existed.
+     *
+     * @return True if the layers have biases.
+     */
+    default boolean usesBiases() {
+        return true;
+    }
+}
@@ -0,0 +1,100 @@
+package com.kansus.kmlp.initialization;
+
+import java.util.Locale;
+
+/**
+ * The weight initializers that can be assigned to the layers of a network by name, as in the
+ * network configuration, or by identifier, as in the model files. The initializers have no state,
+ * so a single instance of each one is shared by all the layers.
+ */
+public final class WeightInitializers {
+
+    /**
+     * The original initialization, used by all the networks before the biases existed.
+     */
+    public static final WeightInitializer LEGACY = new LegacyWeightInitializer();
+
+    public static final WeightInitializer XAVIER = new XavierWeightInitializer();
+
+    public static final WeightInitializer HE = new HeWeightInitializer();
+
+    /**
+     * The initializers indexed by their identifiers, which are written in the model files and so
+     * must never change.
+     */
+    private static final WeightInitializer[] INITIALIZERS = {LEGACY, XAVIER, HE};
+
+    /**
+     * The names of the initializers, indexed as {@link #INITIALIZERS}.
+     */
+    private static final String[] NAMES = {"legacy", "xavier", "he"};
+
+    private WeightInitializers() {
+    }
+
+    /**
+     * Returns the weight initializer with the given name, ignoring the case.
+     *
+     * @param name The name of the weight initializer.
+     * @return The weight initializer.
+     * @throws IllegalArgumentException If there is no weight initializer with the given name.
+     */
+    public static WeightInitializer forName(String name) {
+        String lowerCaseName = name.toLowerCase(Locale.ROOT);
+
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(lowerCaseName)) {
+                return INITIALIZERS[i];
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown weight initializer: " + name);
+    }
+
+    /**
+     * Returns the weight initializer with the given identifier.
+     *
+     * @param id The identifier of the weight initializer.
+     * @return The weight initializer.
+     * @throws IllegalArgumentException If there is no weight initializer with the given
+     *                                  identifier.
+     */
+    public static WeightInitializer forId(int id) {
+        if (id < 0 || id >= INITIALIZERS.length) {
+            throw new IllegalArgumentException("Unknown weight initializer id: " + id);
+        }
+
+        return INITIALIZERS[id];
+    }
+
+    /**
+     * Returns the identifier of one of the shared weight initializers.
+     *
+     * @param initializer The weight initializer.
+     * @return The identifier of the weight initializer.
+     * @throws IllegalArgumentException If the initializer is not one of the shared instances of
+     *                                  this class.
+     */
+    public static int getId(WeightInitializer initializer) {
+        for (int i = 0; i < INITIALIZERS.length; i++) {
+            if (INITIALIZERS[i] == initializer) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException("The weight initializer "
+                + initializer.getClass().getSimpleName() + " has no identifier.");
+    }
+
+    /**
+     * Returns the name of one of the shared weight initializers.
+     *
+     * @param initializer The weight initializer.
+     * @return The name of the weight initializer.
+     * @throws IllegalArgumentException If the initializer is not one of the shared instances of
+     *                                  this class.
+     */
+    public static String getName(WeightInitializer initializer) {
+        return NAMES[getId(initializer)];
+    }
+}
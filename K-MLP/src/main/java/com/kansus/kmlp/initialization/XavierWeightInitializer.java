@@ -0,0 +1,20 @@
+package com.kansus.kmlp.initialization;
+
+import java.util.Random;
+
+/**
+ * Xavier (Glorot) initialization, with weights drawn uniformly from [-a, a), where
+ * a = sqrt(6 / (inputs + neurons)). It keeps the variance of the outputs and of the errors about
+ * the same across the layers, and suits the hyperbolic tangent and the sigmoid.
+ */
+public class XavierWeightInitializer implements WeightInitializer {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double nextWeight(Random random, int inputsCount, int neuronsCount) {
+        double limit = Math.sqrt(6.0 / (inputsCount + neuronsCount));
+        return (2 * random.nextDouble() - 1) * limit;
+    }
+}
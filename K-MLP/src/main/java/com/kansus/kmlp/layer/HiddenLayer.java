@@ -1,13 +1,18 @@
 package com.kansus.kmlp.layer;
 
 import com.kansus.kmlp.neuron.HiddenNeuron;
+import com.kansus.kmlp.neuron.Neuron;
+
+import java.util.List;
 
 /**
  * This class represents an intermediary layer of a multilayer perceptron neural network.
  */
 public class HiddenLayer extends Layer {
 
-    private Layer mOutputLayer;
+    private Layer mNextLayer;
+
+    private double[] mWeightedErrorSums;
 
     /**
      * Constructor of this class.
@@ -30,20 +35,61 @@ public class HiddenLayer extends Layer {
     }
 
     /**
-     * Sets the output layer.
+     * Sets the layer connected to the outputs of this layer, which is another hidden layer or
+     * the output layer.
+     *
+     * @param nextLayer The new next layer.
+     */
+    public void setNextLayer(Layer nextLayer) {
+        mNextLayer = nextLayer;
+    }
+
+    /**
+     * Returns the layer connected to the outputs of this layer.
+     *
+     * @return The next layer.
+     */
+    public Layer getNextLayer() {
+        return mNextLayer;
+    }
+
+    /**
+     * Sets the output layer, when it is the next layer.
      *
      * @param outputLayer The new output layer.
+     * @see #setNextLayer(Layer)
      */
     public void setOutputLayer(Layer outputLayer) {
-        mOutputLayer = outputLayer;
+        setNextLayer(outputLayer);
     }
 
     /**
-     * Returns the output layer.
+     * Returns the next layer.
      *
-     * @return The output layer.
+     * @return The next layer.
+     * @see #getNextLayer()
      */
     public Layer getOutputLayer() {
-        return mOutputLayer;
+        return getNextLayer();
+    }
+
+    /**
+     * Calculates the errors of all the neurons of this layer at once, with a single pass over the
+     * weights of the next layer, instead of one pass per neuron. The errors of the next layer must
+     * be calculated first.
+     */
+    public void computeErrors() {
+        List<Neuron> neurons = this.getNeurons();
+
+        if (mWeightedErrorSums == null || mWeightedErrorSums.length != neurons.size()) {
+            mWeightedErrorSums = new double[neurons.size()];
+        }
+
+        mNextLayer.computeWeightedErrorSums(mWeightedErrorSums);
+
+        for (int i = 0; i < mWeightedErrorSums.length; i++) {
+            Neuron neuron = neurons.get(i);
+            neuron.setError(mWeightedErrorSums[i] * neuron.getOutputDerivative());
+        }
     }
 }
\ No newline at end of file
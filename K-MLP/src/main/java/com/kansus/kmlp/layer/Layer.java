@@ -3,6 +3,7 @@ package com.kansus.kmlp.layer;
 import com.kansus.kmlp.neuron.Neuron;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -83,6 +84,43 @@ public abstract class Layer {
         neuron.setId(this.getNeuronsCount() - 1);
     }
 
+    /**
+     * Calculates the sum of the weighted errors of the neurons in this layer, applying the
+     * function sum(ei * wji).
+     *
+     * @param index The index of the connected neuron.
+     * @return the sum of the weighted errors of the neurons in this layer
+     */
+    public double getWeightedErrorSum(int index) {
+        double sum = 0;
+
+        for (Neuron neuron : this.mNeurons) {
+            sum += neuron.getError() * neuron.getWeights()[index];
+        }
+
+        return sum;
+    }
+
+    /**
+     * Calculates the sums of the weighted errors of the neurons in this layer for all the
+     * connected neurons at once. The weights of each neuron are read in order, instead of reading
+     * one weight of every neuron for each connected neuron.
+     *
+     * @param sums The array that receives the sum of each connected neuron.
+     */
+    public void computeWeightedErrorSums(double[] sums) {
+        Arrays.fill(sums, 0);
+
+        for (Neuron neuron : this.mNeurons) {
+            double error = neuron.getError();
+            double[] weights = neuron.getWeights();
+
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += error * weights[i];
+            }
+        }
+    }
+
     /**
      * Returns a string with the weights of all neurons of this layer.
      *
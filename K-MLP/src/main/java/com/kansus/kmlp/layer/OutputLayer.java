@@ -32,23 +32,6 @@ public class OutputLayer extends Layer {
 		}
 	}
 
-	/**
-	 * Calculates the sum of the weighted errors of the neurons in this layer,
-	 * applying the function sum(ei * wji).
-	 *
-	 * @param index The index of the connected neuron.
-	 * @return the sum of the weighted errors of the neurons in this layer
-	 */
-	public double getWeightedErrorSum(int index) {
-		double sum = 0;
-
-		for (Neuron neuron : this.getNeurons()) {
-			sum += neuron.getError() * neuron.getWeights()[index];
-		}
-
-		return sum;
-	}
-
 	/**
 	 * Calculates the mean squared error of this layer, applying the function
 	 * 1/2*sum((dj - xj)^2) over all the neurons of this layer.
@@ -95,7 +78,17 @@ public class OutputLayer extends Layer {
 	 * @return The outputs of all neurons of this layer.
 	 */
 	public double[] getOutput() {
-		double[] output = new double[this.getNeuronsCount()];
+		return getOutput(new double[this.getNeuronsCount()]);
+	}
+
+	/**
+	 * Copies the outputs of all neurons of this layer to the given array.
+	 *
+	 * @param output The array that receives the outputs. Its length must be
+	 *            at least the amount of neurons in this layer.
+	 * @return The given array.
+	 */
+	public double[] getOutput(double[] output) {
 		int i = 0;
 
 		for (Neuron n : this.getNeurons()) {
@@ -0,0 +1,111 @@
+package com.kansus.kmlp.math;
+
+/**
+ * The inner loops of the neural network: dot products, weight updates and weighted error sums.
+ * The scalar implementation runs on every JVM. When the JDK Vector API is available, that is, on
+ * Java 16 or later with the module jdk.incubator.vector added, an implementation that uses the
+ * SIMD instructions of the processor is selected instead.
+ * <p>
+ * The implementation can be forced by the system property "kmlp.kernels", with the value
+ * "scalar" or "vector".
+ */
+public interface Kernels {
+
+    /**
+     * Returns the kernels selected for this JVM.
+     *
+     * @return The kernels selected for this JVM.
+     */
+    static Kernels get() {
+        return KernelsLoader.DEFAULT;
+    }
+
+    /**
+     * Returns the scalar kernels, which are available on every JVM and add the products one by one
+     * in the order of the elements.
+     *
+     * @return The scalar kernels.
+     */
+    static Kernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+
+    /**
+     * Returns the name of this implementation.
+     *
+     * @return The name of this implementation.
+     */
+    String getName();
+
+    /**
+     * Returns the sum of the products between the elements of two ranges of arrays.
+     *
+     * @param a       The first array.
+     * @param aOffset The index of the first element of the first array.
+     * @param b       The second array.
+     * @param bOffset The index of the first element of the second array.
+     * @param length  The amount of elements.
+     * @return The dot product of the two ranges.
+     */
+    double dot(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+    /**
+     * Returns the sum of the products between the elements of two ranges of arrays.
+     *
+     * @param a       The first array.
+     * @param aOffset The index of the first element of the first array.
+     * @param b       The second array.
+     * @param bOffset The index of the first element of the second array.
+     * @param length  The amount of elements.
+     * @return The dot product of the two ranges.
+     */
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * Adds the elements of a range of an array multiplied by a factor to the elements of a range
+     * of another array, that is, y[i] += alpha * x[i].
+     *
+     * @param alpha   The factor.
+     * @param x       The array that is added.
+     * @param xOffset The index of the first element of the array that is added.
+     * @param y       The array that receives the sums.
+     * @param yOffset The index of the first element of the array that receives the sums.
+     * @param length  The amount of elements.
+     */
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    /**
+     * Adds the elements of a range of an array multiplied by a factor to the elements of a range
+     * of another array, that is, y[i] += alpha * x[i].
+     *
+     * @param alpha   The factor.
+     * @param x       The array that is added.
+     * @param xOffset The index of the first element of the array that is added.
+     * @param y       The array that receives the sums.
+     * @param yOffset The index of the first element of the array that receives the sums.
+     * @param length  The amount of elements.
+     */
+    void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length);
+
+    /**
+     * Adds the elements of a range of an array in single precision multiplied by a factor to the
+     * elements of a range of an array in double precision, that is, y[i] += alpha * x[i].
+     *
+     * @param alpha   The factor.
+     * @param x       The array that is added.
+     * @param xOffset The index of the first element of the array that is added.
+     * @param y       The array that receives the sums.
+     * @param yOffset The index of the first element of the array that receives the sums.
+     * @param length  The amount of elements.
+     */
+    void axpy(double alpha, float[] x, int xOffset, double[] y, int yOffset, int length);
+
+    /**
+     * Returns the cosine of the angle between two vectors of the same length.
+     *
+     * @param a The first vector.
+     * @param b The second vector.
+     * @return The cosine similarity of the vectors.
+     */
+    double cosineSimilarity(double[] a, double[] b);
+}
@@ -0,0 +1,45 @@
+package com.kansus.kmlp.math;
+
+/**
+ * Selects the kernels used by this JVM when the class is loaded. The vector kernels are compiled
+ * separately, for Java 16 or later, so they are loaded by name and the scalar kernels are used when
+ * they can't be loaded or initialized.
+ */
+final class KernelsLoader {
+
+    /**
+     * The system property that forces an implementation of the kernels, "scalar" or "vector".
+     */
+    static final String PROPERTY = "kmlp.kernels";
+
+    private static final String VECTOR_KERNELS_CLASS = "com.kansus.kmlp.math.VectorKernels";
+
+    static final Kernels DEFAULT = load(System.getProperty(PROPERTY, ""));
+
+    private KernelsLoader() {
+    }
+
+    /**
+     * Returns the kernels with the given name, or the best available kernels if the name is
+     * neither "scalar" nor "vector".
+     *
+     * @param name The name of the kernels.
+     * @return The kernels.
+     */
+    static Kernels load(String name) {
+        if (ScalarKernels.INSTANCE.getName().equals(name)) {
+            return ScalarKernels.INSTANCE;
+        }
+
+        try {
+            return (Kernels) Class.forName(VECTOR_KERNELS_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            if ("vector".equals(name)) {
+                System.err.println("The vector kernels are not available, so the scalar kernels are used. "
+                        + "They need Java 16 or later and the option --add-modules jdk.incubator.vector. " + e);
+            }
+
+            return ScalarKernels.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.kansus.kmlp.model;
+
+/**
+ * This class represents an input whose values have only two levels, like the normalized pixels and
+ * strokes, packed as one bit per value. A set bit means the high level and a clear bit the low
+ * level, and the value i is the bit (i % 64) of the word (i / 64).
+ */
+public final class BinaryInput {
+
+    private final long[] mWords;
+
+    private final int mLength;
+
+    private final double mLowValue;
+
+    private final double mHighValue;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param words     The bits of the values. The bits after the length must be clear.
+     * @param length    The amount of values.
+     * @param lowValue  The value of the clear bits.
+     * @param highValue The value of the set bits.
+     */
+    public BinaryInput(long[] words, int length, double lowValue, double highValue) {
+        if (words.length != getWordsCount(length)) {
+            throw new IllegalArgumentException("The input needs " + getWordsCount(length) + " words, but has "
+                    + words.length + ".");
+        }
+
+        this.mWords = words;
+        this.mLength = length;
+        this.mLowValue = lowValue;
+        this.mHighValue = highValue;
+    }
+
+    /**
+     * Packs the given values, which must have at most two distinct levels. The lowest level is
+     * represented by the clear bits and the highest one by the set bits.
+     *
+     * @param data The values to be packed.
+     * @return The packed values.
+     * @throws IllegalArgumentException If the values have more than two levels.
+     */
+    public static BinaryInput pack(double[] data) {
+        double lowValue = Double.POSITIVE_INFINITY;
+        double highValue = Double.NEGATIVE_INFINITY;
+
+        for (double value : data) {
+            lowValue = Math.min(lowValue, value);
+            highValue = Math.max(highValue, value);
+        }
+
+        if (data.length == 0) {
+            lowValue = highValue = 0;
+        }
+
+        long[] words = new long[getWordsCount(data.length)];
+
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == highValue && highValue != lowValue) {
+                words[i >>> 6] |= 1L << i;
+            } else if (data[i] != lowValue) {
+                throw new IllegalArgumentException("The value " + data[i] + " at the index " + i
+                        + " is neither " + lowValue + " nor " + highValue + ".");
+            }
+        }
+
+        return new BinaryInput(words, data.length, lowValue, highValue);
+    }
+
+    private static int getWordsCount(int length) {
+        return (length + 63) >>> 6;
+    }
+
+    /**
+     * Returns the bits of the values of this input.
+     *
+     * @return The bits of the values of this input.
+     */
+    public long[] getWords() {
+        return mWords;
+    }
+
+    /**
+     * Returns the amount of values of this input.
+     *
+     * @return The amount of values of this input.
+     */
+    public int getLength() {
+        return mLength;
+    }
+
+    /**
+     * Returns the value represented by the clear bits.
+     *
+     * @return The value represented by the clear bits.
+     */
+    public double getLowValue() {
+        return mLowValue;
+    }
+
+    /**
+     * Returns the value represented by the set bits.
+     *
+     * @return The value represented by the set bits.
+     */
+    public double getHighValue() {
+        return mHighValue;
+    }
+
+    /**
+     * Returns whether the levels of this input are 0 and 1, in which case only the weights of the
+     * set bits contribute to the products by the weights.
+     *
+     * @return Whether the levels of this input are 0 and 1.
+     */
+    public boolean isUnsigned() {
+        return mLowValue == 0 && mHighValue == 1;
+    }
+
+    /**
+     * Returns whether the value at the given index is the high level.
+     *
+     * @param index The index of the value.
+     * @return Whether the bit of the value is set.
+     */
+    public boolean isSet(int index) {
+        return (mWords[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the value at the given index.
+     *
+     * @param index The index of the value.
+     * @return The value at the given index.
+     */
+    public double get(int index) {
+        return isSet(index) ? mHighValue : mLowValue;
+    }
+
+    /**
+     * Unpacks the values of this input.
+     *
+     * @return A new array with the values of this input.
+     */
+    public double[] toDoubleArray() {
+        double[] data = new double[mLength];
+
+        for (int i = 0; i < mLength; i++) {
+            data[i] = get(i);
+        }
+
+        return data;
+    }
+}
@@ -9,6 +9,8 @@ public class Pattern {
 
     private double[] mData;
 
+    private BinaryInput mBinaryData;
+
     private double[] mExpectedOutput;
 
     /**
@@ -24,6 +26,20 @@ public class Pattern {
         this.mExpectedOutput = expectedOutput;
     }
 
+    /**
+     * Creates a pattern whose data has only two levels, packed as one bit per
+     * value.
+     *
+     * @param name           The name of this pattern.
+     * @param data           The packed data of this pattern.
+     * @param expectedOutput The expected output for this pattern.
+     */
+    public Pattern(String name, BinaryInput data, double[] expectedOutput) {
+        this.mName = name;
+        this.mBinaryData = data;
+        this.mExpectedOutput = expectedOutput;
+    }
+
     /**
      * Returns the name of this pattern.
      *
@@ -34,12 +50,23 @@ public class Pattern {
     }
 
     /**
-     * Returns the data of this pattern.
+     * Returns the data of this pattern. If the data is packed, it is unpacked
+     * into a new array on every call.
      *
      * @return The data of this pattern.
      */
     public double[] getData() {
-        return mData;
+        return mBinaryData != null ? mBinaryData.toDoubleArray() : mData;
+    }
+
+    /**
+     * Returns the packed data of this pattern.
+     *
+     * @return The packed data of this pattern, or null if its data is not
+     * packed.
+     */
+    public BinaryInput getBinaryData() {
+        return mBinaryData;
     }
 
     /**
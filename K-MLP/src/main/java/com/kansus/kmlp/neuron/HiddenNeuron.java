@@ -1,19 +1,25 @@
 package com.kansus.kmlp.neuron;
 
 import com.kansus.kmlp.layer.HiddenLayer;
-import com.kansus.kmlp.layer.OutputLayer;
+import com.kansus.kmlp.layer.Layer;
 
 /**
  * This class represents an intermediary neuron of a multilayer perceptron neural network.
  */
 public class HiddenNeuron extends Neuron {
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This reads one weight of every neuron of the next layer. To compute the errors of all the
+     * neurons of the layer, {@link HiddenLayer#computeErrors()} is much faster.
+     */
     @Override
     public void computeError() {
         HiddenLayer hiddenLayer = (HiddenLayer) this.getLayer();
-        OutputLayer outputLayer = (OutputLayer) hiddenLayer.getOutputLayer();
+        Layer nextLayer = hiddenLayer.getNextLayer();
 
-        double error = outputLayer.getWeightedErrorSum(this.getId()) * (1 - (Math.pow(this.getOutput(), 2)));
+        double error = nextLayer.getWeightedErrorSum(this.getId()) * this.getOutputDerivative();
         this.setError(error);
     }
 }
\ No newline at end of file
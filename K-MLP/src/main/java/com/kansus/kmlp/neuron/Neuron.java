@@ -21,6 +21,8 @@ public abstract class Neuron {
     private double mExpectedOutput;
     private double mOutput;
 
+    private double mSummedInput;
+
     private double mError;
 
     private ActivationFunction activationFunction = new ActivationFunctionInjector().getCurrent();
@@ -120,6 +122,33 @@ public abstract class Neuron {
         this.mOutput = output;
     }
 
+    /**
+     * Returns the activation function applied to the output of this neuron.
+     *
+     * @return The activation function of this neuron.
+     */
+    public ActivationFunction getActivationFunction() {
+        return activationFunction;
+    }
+
+    /**
+     * Sets the activation function applied to the output of this neuron.
+     *
+     * @param activationFunction The activation function of this neuron.
+     */
+    public void setActivationFunction(ActivationFunction activationFunction) {
+        this.activationFunction = activationFunction;
+    }
+
+    /**
+     * Returns the derivative of the activation function of this neuron at its current output.
+     *
+     * @return The derivative of the activation function at the current output.
+     */
+    public double getOutputDerivative() {
+        return activationFunction.calculateDerivative(mSummedInput, mOutput);
+    }
+
     /**
      * Sets the weights of the connections of this neuron.
      *
@@ -169,34 +198,42 @@ public abstract class Neuron {
             dotProductSum += (this.mInputTerminals[i] * this.mWeights[i]);
         }
 
-        this.setOutput(activationFunction.calculateOutput(dotProductSum / (mLayer.getNeuronsCount() * 2)));
+        this.mSummedInput = dotProductSum / (mLayer.getNeuronsCount() * 2);
+        this.setOutput(activationFunction.calculateOutput(mSummedInput));
     }
 
     /**
      * Assigns random weights to the connections of this neuron.
      */
     public void resetWeights() {
-        Random rand = new Random(System.currentTimeMillis());
+        resetWeights(new Random());
+    }
 
+    /**
+     * Assigns random weights to the connections of this neuron. The neurons of a network should
+     * share the same generator, so that they don't get the same weights and the same seed always
+     * gives the same network.
+     *
+     * @param random The random number generator the weights are drawn from.
+     */
+    public void resetWeights(Random random) {
         for (int i = 0; i < this.mWeights.length; i++) {
-            this.mWeights[i] = rand.nextDouble();
+            this.mWeights[i] = random.nextDouble();
         }
     }
 
     /**
      * Adjusts the weights of this neuron applying the function (wij += n*ej*xi) over every input
-     * terminal.
+     * terminal. The weights are updated in place.
      *
      * @param learningRate The learning rate of this neural network.
      */
     public void adjustWeights(double learningRate) {
-        double[] newWeights = new double[this.mInputTerminals.length];
+        double delta = learningRate * this.mError;
 
         for (int i = 0; i < this.mInputTerminals.length; i++) {
-            newWeights[i] = this.getWeights()[i] + (learningRate * this.getError() * this.mInputTerminals[i]);
+            this.mWeights[i] += delta * this.mInputTerminals[i];
         }
-
-        this.setWeights(newWeights);
     }
 
     /**
@@ -8,7 +8,7 @@ public class OutputNeuron extends Neuron {
     @Override
     public void computeError() {
         // ei = (di - xi) * F(yi)
-        double error = (this.getExpectedOutput() - this.getOutput()) * (1 - (Math.pow(this.getOutput(), 2)));
+        double error = (this.getExpectedOutput() - this.getOutput()) * this.getOutputDerivative();
         this.setError(error);
     }
 }
\ No newline at end of file
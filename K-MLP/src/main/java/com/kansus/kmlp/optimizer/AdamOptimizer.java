@@ -0,0 +1,98 @@
+package com.kansus.kmlp.optimizer;
+
+/**
+ * Adam, which keeps moving averages of the gradients and of their squares for every weight and
+ * scales the change of every weight by the inverse of the root of the average of its squared
+ * gradients, so all the weights move at a similar pace regardless of the size of their gradients:
+ * <p>
+ * m = b1 * m + (1 - b1) * g
+ * <br>
+ * v = b2 * v + (1 - b2) * g^2
+ * <br>
+ * w += n * (m / (1 - b1^t)) / (sqrt(v / (1 - b2^t)) + e)
+ * <p>
+ * The changes are bounded by the learning rate instead of the size of the gradients, so this
+ * optimizer usually needs a much smaller learning rate than plain gradient descent, like 0.001.
+ */
+public class AdamOptimizer implements Optimizer {
+
+    public static final double DEFAULT_BETA1 = 0.9;
+
+    public static final double DEFAULT_BETA2 = 0.999;
+
+    public static final double DEFAULT_EPSILON = 1e-8;
+
+    private final double mBeta1;
+
+    private final double mBeta2;
+
+    private final double mEpsilon;
+
+    /**
+     * Creates an optimizer with the default decay rates and epsilon.
+     */
+    public AdamOptimizer() {
+        this(DEFAULT_BETA1, DEFAULT_BETA2, DEFAULT_EPSILON);
+    }
+
+    /**
+     * Constructor of this class.
+     *
+     * @param beta1   The decay rate of the average of the gradients, between 0 and 1.
+     * @param beta2   The decay rate of the average of the squared gradients, between 0 and 1.
+     * @param epsilon The value added to the root of the average of the squared gradients, to
+     *                avoid the division by zero.
+     */
+    public AdamOptimizer(double beta1, double beta2, double epsilon) {
+        if (beta1 < 0 || beta1 >= 1 || beta2 < 0 || beta2 >= 1) {
+            throw new IllegalArgumentException("The decay rates must be between 0 and 1, but are " + beta1
+                    + " and " + beta2 + ".");
+        }
+
+        this.mBeta1 = beta1;
+        this.mBeta2 = beta2;
+        this.mEpsilon = epsilon;
+    }
+
+    @Override
+    public WeightUpdater createWeightUpdater(int weightsCount) {
+        return new Updater(new double[weightsCount], new double[weightsCount]);
+    }
+
+    private class Updater implements WeightUpdater {
+
+        private final double[] mMeans;
+
+        private final double[] mSquaredMeans;
+
+        Updater(double[] means, double[] squaredMeans) {
+            this.mMeans = means;
+            this.mSquaredMeans = squaredMeans;
+        }
+
+        @Override
+        public void computeChanges(double[] gradients, int start, int end, double learningRate, int updatesCount) {
+            // The bias corrections are folded into the learning rate and the epsilon, so each
+            // weight takes a single division.
+            double meanCorrection = 1 - Math.pow(mBeta1, updatesCount);
+            double squaredMeanCorrection = Math.sqrt(1 - Math.pow(mBeta2, updatesCount));
+            double stepSize = learningRate * squaredMeanCorrection / meanCorrection;
+            double epsilon = mEpsilon * squaredMeanCorrection;
+
+            for (int i = start; i < end; i++) {
+                double gradient = gradients[i];
+                double mean = (mBeta1 * mMeans[i]) + ((1 - mBeta1) * gradient);
+                double squaredMean = (mBeta2 * mSquaredMeans[i]) + ((1 - mBeta2) * gradient * gradient);
+
+                mMeans[i] = mean;
+                mSquaredMeans[i] = squaredMean;
+                gradients[i] = stepSize * mean / (Math.sqrt(squaredMean) + epsilon);
+            }
+        }
+
+        @Override
+        public double[][] getState() {
+            return new double[][]{mMeans, mSquaredMeans};
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.kansus.kmlp.optimizer;
+
+/**
+ * Plain gradient descent, which adds the gradients multiplied by the learning rate to the weights:
+ * <p>
+ * w += n * g
+ */
+public class GradientDescentOptimizer implements Optimizer {
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Plain gradient descent keeps no state, so this always returns null.
+     */
+    @Override
+    public WeightUpdater createWeightUpdater(int weightsCount) {
+        return null;
+    }
+}
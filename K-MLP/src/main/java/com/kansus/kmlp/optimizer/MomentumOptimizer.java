@@ -0,0 +1,80 @@
+package com.kansus.kmlp.optimizer;
+
+/**
+ * Gradient descent with momentum, which keeps a velocity for every weight that accumulates the
+ * past changes, so the weights keep moving in the directions that are consistent between the
+ * batches:
+ * <p>
+ * v = m * v + n * g
+ * <br>
+ * w += v
+ */
+public class MomentumOptimizer implements Optimizer {
+
+    /**
+     * The default fraction of the velocity that is kept by every update.
+     */
+    public static final double DEFAULT_MOMENTUM = 0.9;
+
+    private final double mMomentum;
+
+    /**
+     * Creates an optimizer with the default momentum.
+     */
+    public MomentumOptimizer() {
+        this(DEFAULT_MOMENTUM);
+    }
+
+    /**
+     * Constructor of this class.
+     *
+     * @param momentum The fraction of the velocity that is kept by every update, between 0 and 1.
+     */
+    public MomentumOptimizer(double momentum) {
+        if (momentum < 0 || momentum >= 1) {
+            throw new IllegalArgumentException("The momentum must be between 0 and 1, but is " + momentum + ".");
+        }
+
+        this.mMomentum = momentum;
+    }
+
+    /**
+     * Returns the fraction of the velocity that is kept by every update.
+     *
+     * @return The momentum of this optimizer.
+     */
+    public double getMomentum() {
+        return mMomentum;
+    }
+
+    @Override
+    public WeightUpdater createWeightUpdater(int weightsCount) {
+        return new Updater(mMomentum, new double[weightsCount]);
+    }
+
+    private static class Updater implements WeightUpdater {
+
+        private final double mMomentum;
+
+        private final double[] mVelocities;
+
+        Updater(double momentum, double[] velocities) {
+            this.mMomentum = momentum;
+            this.mVelocities = velocities;
+        }
+
+        @Override
+        public void computeChanges(double[] gradients, int start, int end, double learningRate, int updatesCount) {
+            for (int i = start; i < end; i++) {
+                double velocity = (mMomentum * mVelocities[i]) + (learningRate * gradients[i]);
+                mVelocities[i] = velocity;
+                gradients[i] = velocity;
+            }
+        }
+
+        @Override
+        public double[][] getState() {
+            return new double[][]{mVelocities};
+        }
+    }
+}
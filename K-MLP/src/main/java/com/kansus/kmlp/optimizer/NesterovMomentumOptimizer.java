@@ -0,0 +1,76 @@
+package com.kansus.kmlp.optimizer;
+
+/**
+ * Gradient descent with Nesterov momentum. Like {@link MomentumOptimizer}, but the change of
+ * every weight looks ahead by one more step of the velocity, which corrects the velocity sooner
+ * when the gradients change direction:
+ * <p>
+ * v = m * v + n * g
+ * <br>
+ * w += m * v + n * g
+ */
+public class NesterovMomentumOptimizer implements Optimizer {
+
+    private final double mMomentum;
+
+    /**
+     * Creates an optimizer with the default momentum, {@link MomentumOptimizer#DEFAULT_MOMENTUM}.
+     */
+    public NesterovMomentumOptimizer() {
+        this(MomentumOptimizer.DEFAULT_MOMENTUM);
+    }
+
+    /**
+     * Constructor of this class.
+     *
+     * @param momentum The fraction of the velocity that is kept by every update, between 0 and 1.
+     */
+    public NesterovMomentumOptimizer(double momentum) {
+        if (momentum < 0 || momentum >= 1) {
+            throw new IllegalArgumentException("The momentum must be between 0 and 1, but is " + momentum + ".");
+        }
+
+        this.mMomentum = momentum;
+    }
+
+    /**
+     * Returns the fraction of the velocity that is kept by every update.
+     *
+     * @return The momentum of this optimizer.
+     */
+    public double getMomentum() {
+        return mMomentum;
+    }
+
+    @Override
+    public WeightUpdater createWeightUpdater(int weightsCount) {
+        return new Updater(mMomentum, new double[weightsCount]);
+    }
+
+    private static class Updater implements WeightUpdater {
+
+        private final double mMomentum;
+
+        private final double[] mVelocities;
+
+        Updater(double momentum, double[] velocities) {
+            this.mMomentum = momentum;
+            this.mVelocities = velocities;
+        }
+
+        @Override
+        public void computeChanges(double[] gradients, int start, int end, double learningRate, int updatesCount) {
+            for (int i = start; i < end; i++) {
+                double step = learningRate * gradients[i];
+                double velocity = (mMomentum * mVelocities[i]) + step;
+                mVelocities[i] = velocity;
+                gradients[i] = (mMomentum * velocity) + step;
+            }
+        }
+
+        @Override
+        public double[][] getState() {
+            return new double[][]{mVelocities};
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.kansus.kmlp.optimizer;
+
+/**
+ * An algorithm that turns the gradients of the weights of a layer into the changes applied to the
+ * weights. The optimizers themselves have no state, so they can be shared by many networks. The
+ * state they need between the updates, like the velocity of every weight, is kept by the
+ * {@link WeightUpdater} created for each layer.
+ */
+public interface Optimizer {
+
+    /**
+     * Creates the state of this optimizer for a layer with the given amount of weights.
+     *
+     * @param weightsCount The amount of weights of the layer.
+     * @return The weight updater of the layer, or null if this optimizer keeps no state and the
+     * gradients multiplied by the learning rate are added to the weights as they are.
+     */
+    WeightUpdater createWeightUpdater(int weightsCount);
+}
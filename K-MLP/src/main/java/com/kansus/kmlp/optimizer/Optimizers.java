@@ -0,0 +1,35 @@
+package com.kansus.kmlp.optimizer;
+
+import java.util.Locale;
+
+/**
+ * Creates the optimizers by name, as in the network configuration.
+ */
+public final class Optimizers {
+
+    private Optimizers() {
+    }
+
+    /**
+     * Returns an optimizer with its default parameters, ignoring the case of the name. The names
+     * are "sgd", "momentum", "nesterov" and "adam".
+     *
+     * @param name The name of the optimizer.
+     * @return The optimizer.
+     * @throws IllegalArgumentException If there is no optimizer with the given name.
+     */
+    public static Optimizer forName(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "sgd":
+                return new GradientDescentOptimizer();
+            case "momentum":
+                return new MomentumOptimizer();
+            case "nesterov":
+                return new NesterovMomentumOptimizer();
+            case "adam":
+                return new AdamOptimizer();
+            default:
+                throw new IllegalArgumentException("Unknown optimizer: " + name);
+        }
+    }
+}
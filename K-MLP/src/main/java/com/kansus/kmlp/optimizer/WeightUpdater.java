@@ -0,0 +1,33 @@
+package com.kansus.kmlp.optimizer;
+
+/**
+ * The state of an {@link Optimizer} for the weights of a single layer, kept in flat arrays
+ * indexed like the weights. A range of the weights is only ever updated by one thread at a time,
+ * but different ranges of the same update may be updated by different threads.
+ */
+public interface WeightUpdater {
+
+    /**
+     * Turns the gradients of a range of the weights into the changes of the weights, in place.
+     * The gradients are the sums of (ej*xi) over the patterns of the batch, so the weights
+     * improve when the changes are added to them.
+     *
+     * @param gradients    The gradients of the weights, indexed as the weights. They are replaced
+     *                     by the changes of the weights.
+     * @param start        The index of the first weight of the range.
+     * @param end          The index after the last weight of the range.
+     * @param learningRate The learning rate of the neural network.
+     * @param updatesCount The number of this update since the training started, starting at 1.
+     *                     It is the same for all the ranges of an update.
+     */
+    void computeChanges(double[] gradients, int start, int end, double learningRate, int updatesCount);
+
+    /**
+     * Returns the arrays kept by this updater between the updates, indexed like the weights. They
+     * are the arrays themselves, not copies, so a training checkpoint can save them and restore
+     * them in place.
+     *
+     * @return The state of this updater.
+     */
+    double[][] getState();
+}
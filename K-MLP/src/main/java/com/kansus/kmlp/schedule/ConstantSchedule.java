@@ -0,0 +1,12 @@
+package com.kansus.kmlp.schedule;
+
+/**
+ * Keeps the initial learning rate during the whole training.
+ */
+public class ConstantSchedule implements LearningRateSchedule {
+
+    @Override
+    public double getLearningRate(double initialLearningRate, int epochs, double error) {
+        return initialLearningRate;
+    }
+}
@@ -0,0 +1,40 @@
+package com.kansus.kmlp.schedule;
+
+/**
+ * Lowers the learning rate along half a period of a cosine, from the initial learning rate to a
+ * minimum learning rate reached at the given epoch and kept after it:
+ * <p>
+ * n = nmin + (n0 - nmin) * (1 + cos(pi * epochs / totalEpochs)) / 2
+ */
+public class CosineAnnealingSchedule implements LearningRateSchedule {
+
+    private final int mTotalEpochs;
+
+    private final double mMinimumLearningRate;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param totalEpochs         The epoch at which the learning rate reaches its minimum, usually
+     *                            the maximum amount of epochs of the training.
+     * @param minimumLearningRate The learning rate at the end of the schedule.
+     */
+    public CosineAnnealingSchedule(int totalEpochs, double minimumLearningRate) {
+        if (totalEpochs < 1) {
+            throw new IllegalArgumentException("The schedule must last at least 1 epoch.");
+        }
+
+        this.mTotalEpochs = totalEpochs;
+        this.mMinimumLearningRate = minimumLearningRate;
+    }
+
+    @Override
+    public double getLearningRate(double initialLearningRate, int epochs, double error) {
+        if (epochs >= mTotalEpochs) {
+            return mMinimumLearningRate;
+        }
+
+        double cosine = Math.cos(Math.PI * epochs / mTotalEpochs);
+        return mMinimumLearningRate + ((initialLearningRate - mMinimumLearningRate) * (1 + cosine) / 2);
+    }
+}
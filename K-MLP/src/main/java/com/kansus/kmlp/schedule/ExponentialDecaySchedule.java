@@ -0,0 +1,26 @@
+package com.kansus.kmlp.schedule;
+
+/**
+ * Multiplies the learning rate by a factor after every epoch:
+ * <p>
+ * n = n0 * decayRate^epochs
+ */
+public class ExponentialDecaySchedule implements LearningRateSchedule {
+
+    private final double mDecayRate;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param decayRate The factor applied to the learning rate after every epoch, usually just
+     *                  below 1.
+     */
+    public ExponentialDecaySchedule(double decayRate) {
+        this.mDecayRate = decayRate;
+    }
+
+    @Override
+    public double getLearningRate(double initialLearningRate, int epochs, double error) {
+        return initialLearningRate * Math.pow(mDecayRate, epochs);
+    }
+}
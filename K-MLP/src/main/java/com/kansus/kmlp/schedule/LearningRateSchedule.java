@@ -0,0 +1,50 @@
+package com.kansus.kmlp.schedule;
+
+/**
+ * Decides the learning rate of every epoch of a training, from the initial learning rate of the
+ * network, the amount of epochs already done and the error of the last epoch. Some schedules keep
+ * a state between the epochs, so an instance should not be shared by networks that are trained at
+ * the same time.
+ */
+public interface LearningRateSchedule {
+
+    /**
+     * Returns the learning rate of the next epoch. It's called once before every epoch, in order.
+     *
+     * @param initialLearningRate The learning rate set in the network.
+     * @param epochs              The amount of epochs already done in this training.
+     * @param error               The mean squared error of the last epoch, or
+     *                            {@link Double#NaN} before the first epoch.
+     * @return The learning rate of the next epoch.
+     */
+    double getLearningRate(double initialLearningRate, int epochs, double error);
+
+    /**
+     * Discards the state kept between the epochs, as in the beginning of a training.
+     */
+    default void reset() {
+    }
+
+    /**
+     * Returns the state kept between the epochs, so that a training resumed from a checkpoint
+     * continues with the same learning rates. The schedules without state return an empty array.
+     *
+     * @return The values of the state of this schedule.
+     */
+    default double[] getState() {
+        return new double[0];
+    }
+
+    /**
+     * Restores a state returned by {@link #getState()}.
+     *
+     * @param state The values of the state of this schedule.
+     * @throws IllegalArgumentException If the state does not have the values of this schedule.
+     */
+    default void setState(double[] state) {
+        if (state.length != 0) {
+            throw new IllegalArgumentException("The schedule " + getClass().getSimpleName() + " has no state, but "
+                    + state.length + " values were given.");
+        }
+    }
+}
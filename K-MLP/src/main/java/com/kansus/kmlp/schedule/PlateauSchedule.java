@@ -0,0 +1,83 @@
+package com.kansus.kmlp.schedule;
+
+/**
+ * Multiplies the learning rate by a factor whenever the error of the epochs stops improving for
+ * a given amount of epochs, down to a minimum learning rate. The error improves when it is lower
+ * than the best error so far by more than a fraction of it.
+ */
+public class PlateauSchedule implements LearningRateSchedule {
+
+    private final double mFactor;
+
+    private final int mPatience;
+
+    private final double mThreshold;
+
+    private final double mMinimumLearningRate;
+
+    private double mScale = 1;
+
+    private double mBestError = Double.POSITIVE_INFINITY;
+
+    private int mEpochsWithoutImprovement;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param factor              The factor applied to the learning rate by every reduction.
+     * @param patience            The amount of epochs without improvement that reduces the
+     *                            learning rate.
+     * @param threshold           The fraction of the best error by which a new error must be
+     *                            lower to count as an improvement.
+     * @param minimumLearningRate The learning rate below which it is not reduced anymore.
+     */
+    public PlateauSchedule(double factor, int patience, double threshold, double minimumLearningRate) {
+        if (factor <= 0 || factor >= 1) {
+            throw new IllegalArgumentException("The factor must be between 0 and 1, but is " + factor + ".");
+        }
+
+        this.mFactor = factor;
+        this.mPatience = patience;
+        this.mThreshold = threshold;
+        this.mMinimumLearningRate = minimumLearningRate;
+    }
+
+    @Override
+    public double getLearningRate(double initialLearningRate, int epochs, double error) {
+        if (!Double.isNaN(error)) {
+            if (error < mBestError * (1 - mThreshold)) {
+                mBestError = error;
+                mEpochsWithoutImprovement = 0;
+            } else if (++mEpochsWithoutImprovement >= mPatience) {
+                mScale *= mFactor;
+                mEpochsWithoutImprovement = 0;
+            }
+        }
+
+        return Math.max(mMinimumLearningRate, initialLearningRate * mScale);
+    }
+
+    @Override
+    public void reset() {
+        mScale = 1;
+        mBestError = Double.POSITIVE_INFINITY;
+        mEpochsWithoutImprovement = 0;
+    }
+
+    @Override
+    public double[] getState() {
+        return new double[]{mScale, mBestError, mEpochsWithoutImprovement};
+    }
+
+    @Override
+    public void setState(double[] state) {
+        if (state.length != 3) {
+            throw new IllegalArgumentException("The state of the schedule has 3 values, but " + state.length
+                    + " were given.");
+        }
+
+        mScale = state[0];
+        mBestError = state[1];
+        mEpochsWithoutImprovement = (int) state[2];
+    }
+}
@@ -0,0 +1,33 @@
+package com.kansus.kmlp.schedule;
+
+/**
+ * Multiplies the learning rate by a factor every given amount of epochs:
+ * <p>
+ * n = n0 * factor^floor(epochs / stepEpochs)
+ */
+public class StepDecaySchedule implements LearningRateSchedule {
+
+    private final int mStepEpochs;
+
+    private final double mFactor;
+
+    /**
+     * Constructor of this class.
+     *
+     * @param stepEpochs The amount of epochs between two reductions of the learning rate.
+     * @param factor     The factor applied to the learning rate by every reduction.
+     */
+    public StepDecaySchedule(int stepEpochs, double factor) {
+        if (stepEpochs < 1) {
+            throw new IllegalArgumentException("The amount of epochs between the steps must be at least 1.");
+        }
+
+        this.mStepEpochs = stepEpochs;
+        this.mFactor = factor;
+    }
+
+    @Override
+    public double getLearningRate(double initialLearningRate, int epochs, double error) {
+        return initialLearningRate * Math.pow(mFactor, epochs / mStepEpochs);
+    }
+}
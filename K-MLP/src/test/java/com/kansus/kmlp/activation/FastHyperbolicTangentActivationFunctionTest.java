@@ -0,0 +1,70 @@
+package com.kansus.kmlp.activation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the table-based hyperbolic tangent against {@link Math#tanh(double)}, so changing the
+ * range or the steps of its table can't silently break {@link
+ * FastHyperbolicTangentActivationFunction#MAXIMUM_ERROR}.
+ */
+public class FastHyperbolicTangentActivationFunctionTest {
+
+    private static final double LIMIT = 20;
+
+    private static final double STEP = 1e-5;
+
+    private final FastHyperbolicTangentActivationFunction mFunction =
+            new FastHyperbolicTangentActivationFunction();
+
+    @Test
+    public void errorIsWithinMaximumError() {
+        double maximumError = 0;
+        double worstInput = 0;
+
+        for (long i = Math.round(-LIMIT / STEP); i <= Math.round(LIMIT / STEP); i++) {
+            double x = i * STEP;
+            double error = Math.abs(mFunction.calculateOutput(x) - Math.tanh(x));
+
+            if (error > maximumError) {
+                maximumError = error;
+                worstInput = x;
+            }
+        }
+
+        assertTrue("Error " + maximumError + " at " + worstInput,
+                maximumError <= FastHyperbolicTangentActivationFunction.MAXIMUM_ERROR);
+    }
+
+    @Test
+    public void isOddAndMonotonic() {
+        double previous = mFunction.calculateOutput(-LIMIT);
+
+        for (long i = Math.round(-LIMIT / STEP) + 1; i <= Math.round(LIMIT / STEP); i++) {
+            double x = i * STEP;
+            double output = mFunction.calculateOutput(x);
+
+            assertEquals("f(-x) at " + x, -output, mFunction.calculateOutput(-x), 0);
+            assertTrue("Decreasing at " + x, output >= previous);
+            previous = output;
+        }
+
+        assertEquals(0, mFunction.calculateOutput(0), 0);
+    }
+
+    @Test
+    public void saturatesToOne() {
+        double[] inputs = {8, 8.5, 20, 1e6, Double.MAX_VALUE, Double.POSITIVE_INFINITY};
+
+        for (double x : inputs) {
+            assertEquals("f(" + x + ")", 1, mFunction.calculateOutput(x), 0);
+            assertEquals("f(" + -x + ")", -1, mFunction.calculateOutput(-x), 0);
+        }
+
+        double belowRange = Math.nextDown(8.0);
+        assertTrue(mFunction.calculateOutput(belowRange) < 1);
+        assertTrue(mFunction.calculateOutput(belowRange) > -1);
+    }
+}
@@ -0,0 +1,197 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.model.BinaryInput;
+import com.kansus.kmlp.optimizer.AdamOptimizer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that the training and evaluation hot paths of the strokes network (32x64x37) allocate
+ * nothing once the network is warmed up, by reading the bytes allocated by the current thread
+ * before and after a whole epoch. The epochs of {@link MultilayerPerceptron#train()} are measured
+ * by comparing a training with twice the epochs of another, so what each training allocates once,
+ * like the order of the patterns, is not counted.
+ */
+public class AllocationTest {
+
+    private static final int PATTERNS_COUNT = 256;
+
+    private static final int WARM_UP_EPOCHS = 200;
+
+    private static final int MEASURED_EPOCHS = 20;
+
+    private static final int WARM_UP_TRAININGS = 10;
+
+    private com.sun.management.ThreadMXBean mThreadBean;
+
+    private MultilayerPerceptron mNetwork;
+
+    private double[][] mData;
+
+    private double[][] mExpectedOutputs;
+
+    private double[] mOutput;
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+
+        mThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(mThreadBean.isThreadAllocatedMemorySupported());
+        mThreadBean.setThreadAllocatedMemoryEnabled(true);
+
+        Random random = new Random(1);
+        mNetwork = new MultilayerPerceptron(32, 64, 37);
+        mData = new double[PATTERNS_COUNT][32];
+        mExpectedOutputs = new double[PATTERNS_COUNT][37];
+        mOutput = new double[37];
+
+        for (int p = 0; p < PATTERNS_COUNT; p++) {
+            for (int i = 0; i < 32; i++) {
+                mData[p][i] = random.nextDouble() * 2 - 1;
+            }
+
+            Arrays.fill(mExpectedOutputs[p], -1);
+            mExpectedOutputs[p][p % 37] = 1;
+        }
+    }
+
+    @Test
+    public void trainingEpochAllocatesNothing() {
+        for (int epoch = 0; epoch < WARM_UP_EPOCHS; epoch++) {
+            trainEpoch();
+        }
+
+        long overhead = measureEmpty();
+        long before = allocatedBytes();
+        trainEpoch();
+        long after = allocatedBytes();
+
+        assertEquals("Bytes allocated by a training epoch", 0, after - before - overhead);
+    }
+
+    @Test
+    public void trainAllocatesNothingPerPattern() {
+        MultilayerPerceptron network = createPackedNetwork();
+
+        assertEquals("Bytes allocated per pattern", 0, measureTrainingPerPattern(network), 0);
+    }
+
+    @Test
+    public void batchTrainWithOptimizerAllocatesNothingPerPattern() {
+        MultilayerPerceptron network = createPackedNetwork();
+        network.setOptimizer(new AdamOptimizer());
+        network.setBatchSize(8);
+
+        assertEquals("Bytes allocated per pattern", 0, measureTrainingPerPattern(network), 0);
+    }
+
+    @Test
+    public void evaluateIntoBufferAllocatesNothing() {
+        for (int epoch = 0; epoch < WARM_UP_EPOCHS; epoch++) {
+            evaluateEpoch();
+        }
+
+        long overhead = measureEmpty();
+        long before = allocatedBytes();
+        evaluateEpoch();
+        long after = allocatedBytes();
+
+        assertEquals("Bytes allocated by evaluating every pattern", 0, after - before - overhead);
+    }
+
+    /**
+     * Creates the strokes network with packed two-level patterns, which are unpacked every time
+     * they are presented to the network.
+     */
+    private MultilayerPerceptron createPackedNetwork() {
+        Random random = new Random(2);
+        MultilayerPerceptron network = new MultilayerPerceptron(32, 64, 37);
+        network.setMinimumError(0);
+
+        for (int p = 0; p < PATTERNS_COUNT; p++) {
+            double[] data = new double[32];
+
+            for (int i = 0; i < data.length; i++) {
+                data[i] = random.nextBoolean() ? 1 : -1;
+            }
+
+            network.addPattern("", BinaryInput.pack(data), mExpectedOutputs[p]);
+        }
+
+        return network;
+    }
+
+    /**
+     * Returns the bytes allocated by each pattern presented by {@link MultilayerPerceptron#train()},
+     * which is the difference between a training of twice the measured epochs and one of the
+     * measured epochs, divided by the patterns presented in the extra epochs.
+     */
+    private double measureTrainingPerPattern(MultilayerPerceptron network) {
+        for (int i = 0; i < WARM_UP_TRAININGS; i++) {
+            train(network, 2 * MEASURED_EPOCHS);
+        }
+
+        long overhead = measureEmpty();
+        long shortTraining = train(network, MEASURED_EPOCHS) - overhead;
+        long longTraining = train(network, 2 * MEASURED_EPOCHS) - overhead;
+
+        return (double) (longTraining - shortTraining) / (MEASURED_EPOCHS * PATTERNS_COUNT);
+    }
+
+    /**
+     * Trains the network for the given epochs and returns the bytes allocated by the training.
+     */
+    private long train(MultilayerPerceptron network, int epochs) {
+        network.setMaxEpochs(epochs);
+
+        long before = allocatedBytes();
+        network.train();
+        return allocatedBytes() - before;
+    }
+
+    private double trainEpoch() {
+        double lossSum = 0;
+
+        for (int p = 0; p < PATTERNS_COUNT; p++) {
+            lossSum += mNetwork.trainPattern(mData[p], mExpectedOutputs[p]);
+        }
+
+        return lossSum;
+    }
+
+    private double evaluateEpoch() {
+        double outputsSum = 0;
+
+        for (int p = 0; p < PATTERNS_COUNT; p++) {
+            outputsSum += mNetwork.evaluate(mData[p], mOutput)[0];
+        }
+
+        return outputsSum;
+    }
+
+    /**
+     * Returns the bytes allocated by reading the allocated bytes themselves, if any, so they are
+     * not counted against the code being measured.
+     *
+     * @return The bytes allocated between two consecutive readings.
+     */
+    private long measureEmpty() {
+        allocatedBytes();
+        long before = allocatedBytes();
+        long after = allocatedBytes();
+        return after - before;
+    }
+
+    private long allocatedBytes() {
+        return mThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
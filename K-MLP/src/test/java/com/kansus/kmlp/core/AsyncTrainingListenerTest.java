@@ -0,0 +1,165 @@
+package com.kansus.kmlp.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that the asynchronous listener delivers every event in order, and that an exception of
+ * the listener reaches the training thread instead of being lost in the reporter thread.
+ */
+public class AsyncTrainingListenerTest {
+
+    @Test
+    public void eventsAreDeliveredInOrder() {
+        List<String> events = new ArrayList<>();
+        AsyncTrainingListener listener = new AsyncTrainingListener(new NetworkTrainingListener() {
+
+            @Override
+            public void onTrainingStarted() {
+                events.add("started");
+            }
+
+            @Override
+            public void onValidationCompleted(int epochs, double error, double bestError) {
+                events.add("validated " + epochs);
+            }
+
+            @Override
+            public void onTrainingCompleted(int epochs, double error, long totalTime) {
+                events.add("completed " + epochs);
+            }
+        }, 2);
+
+        listener.onTrainingStarted();
+
+        for (int epochs = 1; epochs <= 100; epochs++) {
+            listener.onValidationCompleted(epochs, 0, 0);
+        }
+
+        listener.onTrainingCompleted(100, 0, 0);
+        listener.close();
+
+        assertEquals(102, events.size());
+        assertEquals("started", events.get(0));
+        assertEquals("validated 50", events.get(50));
+        assertEquals("completed 100", events.get(101));
+    }
+
+    @Test
+    public void listenerExceptionIsThrownInTheTrainingThread() {
+        RuntimeException exception = new IllegalStateException("The listener failed.");
+        AsyncTrainingListener listener = new AsyncTrainingListener(new NetworkTrainingListener() {
+
+            @Override
+            public void onTrainingStarted() {
+                throw exception;
+            }
+
+            @Override
+            public void onTrainingCompleted(int epochs, double error, long totalTime) {
+            }
+        });
+
+        try {
+            listener.onTrainingStarted();
+            listener.onTrainingCompleted(1, 0, 0);
+            fail("The exception of the listener was lost.");
+        } catch (IllegalStateException e) {
+            assertSame(exception, e);
+        }
+
+        listener.close();
+    }
+
+    @Test(timeout = 10000)
+    public void listenerErrorIsThrownInTheTrainingThread() {
+        Error failure = new AssertionError("The listener failed.");
+        AsyncTrainingListener listener = new AsyncTrainingListener(new NetworkTrainingListener() {
+
+            @Override
+            public void onTrainingStarted() {
+                throw failure;
+            }
+
+            @Override
+            public void onTrainingCompleted(int epochs, double error, long totalTime) {
+            }
+        }, 2);
+
+        try {
+            listener.onTrainingStarted();
+
+            for (int epochs = 1; epochs <= 100; epochs++) {
+                listener.onValidationCompleted(epochs, 0, 0);
+            }
+
+            listener.onTrainingCompleted(100, 0, 0);
+            fail("The error of the listener was lost.");
+        } catch (AssertionError e) {
+            assertSame(failure, e);
+        }
+
+        listener.close();
+    }
+
+    @Test
+    public void listenerExceptionIsSuppressedByTrainingException() {
+        RuntimeException listenerException = new IllegalStateException("The listener failed.");
+        RuntimeException trainingException = new IllegalArgumentException("The training failed.");
+
+        try (AsyncTrainingListener listener = new AsyncTrainingListener(new NetworkTrainingListener() {
+
+            @Override
+            public void onTrainingStarted() {
+                throw listenerException;
+            }
+
+            @Override
+            public void onTrainingCompleted(int epochs, double error, long totalTime) {
+            }
+        })) {
+            listener.onTrainingStarted();
+            throw trainingException;
+        } catch (IllegalArgumentException e) {
+            assertSame(trainingException, e);
+            assertArrayEquals(new Throwable[]{listenerException}, e.getSuppressed());
+        }
+    }
+
+    @Test
+    public void listenerExceptionStopsTheTraining() {
+        RuntimeException exception = new IllegalStateException("The listener failed.");
+        MultilayerPerceptron network = new MultilayerPerceptron(4, 3, 2, Precision.DOUBLE);
+        network.addPattern("", new double[]{1, -1, 1, -1}, new double[]{1, -1});
+        network.setMinimumError(0);
+        network.setMaxEpochs(50);
+
+        AsyncTrainingListener listener = new AsyncTrainingListener(new NetworkTrainingListener() {
+
+            @Override
+            public void onTrainingStarted() {
+            }
+
+            @Override
+            public void onTrainingCompleted(int epochs, double error, long totalTime) {
+                throw exception;
+            }
+        });
+
+        try {
+            network.train(listener);
+            fail("The exception of the listener was lost.");
+        } catch (IllegalStateException e) {
+            assertSame(exception, e);
+        } finally {
+            listener.close();
+        }
+    }
+}
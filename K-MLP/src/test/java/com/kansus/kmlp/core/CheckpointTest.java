@@ -0,0 +1,163 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.optimizer.AdamOptimizer;
+import com.kansus.kmlp.schedule.PlateauSchedule;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the checkpoints of a training: that the failures to save them are reported, and that a
+ * training resumed from one continues exactly where it stopped.
+ */
+public class CheckpointTest {
+
+    private static final int INPUTS = 20;
+
+    private static final int OUTPUTS = 5;
+
+    private File mCheckpointFile;
+
+    @Before
+    public void setUp() throws IOException {
+        mCheckpointFile = File.createTempFile("training", ".ckpt");
+        mCheckpointFile.deleteOnExit();
+    }
+
+    @Test
+    public void resumedTrainingMatchesUninterruptedTraining() throws IOException {
+        MultilayerPerceptron uninterruptedNetwork = createNetwork(80, null, 0);
+        uninterruptedNetwork.train();
+
+        createNetwork(41, mCheckpointFile, 40).train();
+        MultilayerPerceptron resumedNetwork = createNetwork(80, null, 0);
+        RecordingListener listener = new RecordingListener();
+        resumedNetwork.resume(mCheckpointFile, listener);
+
+        assertEquals(80, listener.mCompletedEpochs);
+        assertArrayEquals(readWeights(uninterruptedNetwork), readWeights(resumedNetwork));
+    }
+
+    @Test
+    public void resumeAtMaxEpochsTrainsNoMoreEpochs() throws IOException {
+        MultilayerPerceptron interruptedNetwork = createNetwork(41, mCheckpointFile, 40);
+        interruptedNetwork.train();
+
+        MultilayerPerceptron resumedNetwork = createNetwork(41, null, 0);
+        RecordingListener listener = new RecordingListener();
+        resumedNetwork.resume(mCheckpointFile, listener);
+
+        assertEquals(41, listener.mCompletedEpochs);
+        assertArrayEquals(readWeights(interruptedNetwork), readWeights(resumedNetwork));
+    }
+
+    @Test
+    public void failedCheckpointIsReportedToTheListener() {
+        File unwritableFile = new File(new File(mCheckpointFile.getPath() + ".missing"), "training.ckpt");
+        MultilayerPerceptron network = createNetwork(20, unwritableFile, 5);
+        RecordingListener listener = new RecordingListener();
+
+        network.train(listener);
+
+        assertTrue("No failures reported", !listener.mFailedEpochs.isEmpty());
+        assertTrue("Checkpoints saved " + listener.mSavedEpochs, listener.mSavedEpochs.isEmpty());
+        assertEquals(20, listener.mCompletedEpochs);
+    }
+
+    @Test
+    public void failedCheckpointStopsTheTrainingByDefault() {
+        File unwritableFile = new File(new File(mCheckpointFile.getPath() + ".missing"), "training.ckpt");
+        MultilayerPerceptron network = createNetwork(20, unwritableFile, 5);
+
+        try {
+            network.train();
+            fail("The training ignored the failed checkpoint.");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(unwritableFile.toString()));
+        }
+    }
+
+    /**
+     * Creates a network trained with Adam, a plateau schedule, shuffled patterns and a validation
+     * split, which have all the state a checkpoint must keep.
+     */
+    private static MultilayerPerceptron createNetwork(int maxEpochs, File checkpointFile, int checkpointInterval) {
+        MultilayerPerceptron network = new MultilayerPerceptron(new int[]{INPUTS, 16, 12, OUTPUTS},
+                Precision.DOUBLE);
+        Random random = new Random(7);
+
+        for (int p = 0; p < 60; p++) {
+            double[] input = new double[INPUTS];
+
+            for (int i = 0; i < INPUTS; i++) {
+                input[i] = random.nextGaussian();
+            }
+
+            double[] expectedOutput = new double[OUTPUTS];
+            Arrays.fill(expectedOutput, -1);
+            expectedOutput[p % OUTPUTS] = 1;
+            network.addPattern("", input, expectedOutput);
+        }
+
+        network.setOptimizer(new AdamOptimizer());
+        network.setLearningRateSchedule(new PlateauSchedule(0.5, 3, 1e-4, 1e-5));
+        network.setLearningRate(0.01);
+        network.setBatchSize(8);
+        network.setSeed(11);
+        network.setValidationSplit(0.2);
+        network.setValidationInterval(2);
+        network.setMinimumError(0);
+        network.setMaxEpochs(maxEpochs);
+        network.setCheckpointFile(checkpointFile);
+        network.setCheckpointInterval(checkpointInterval);
+        return network;
+    }
+
+    private static byte[] readWeights(MultilayerPerceptron network) throws IOException {
+        File file = File.createTempFile("weights", ".mlp");
+        file.deleteOnExit();
+        network.saveWeightsToFile(file);
+        return Files.readAllBytes(file.toPath());
+    }
+
+    private static class RecordingListener implements NetworkTrainingListener {
+
+        private final List<Integer> mSavedEpochs = new ArrayList<>();
+
+        private final List<Integer> mFailedEpochs = new ArrayList<>();
+
+        private int mCompletedEpochs;
+
+        @Override
+        public void onTrainingStarted() {
+        }
+
+        @Override
+        public void onCheckpointSaved(int epochs, File file) {
+            mSavedEpochs.add(epochs);
+        }
+
+        @Override
+        public void onCheckpointFailed(int epochs, File file, IOException exception) {
+            mFailedEpochs.add(epochs);
+        }
+
+        @Override
+        public void onTrainingCompleted(int epochs, double error, long totalTime) {
+            mCompletedEpochs = epochs;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.layer.HiddenLayer;
+import com.kansus.kmlp.layer.InputLayer;
+import com.kansus.kmlp.layer.Layer;
+import com.kansus.kmlp.layer.OutputLayer;
+import com.kansus.kmlp.neuron.Neuron;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the flat dense layers give exactly the same outputs and weight updates as the
+ * original neuron and layer objects, when both start with the same weights.
+ */
+public class DenseNetworkEquivalenceTest {
+
+    private static final int INPUTS = 64;
+
+    private static final int HIDDEN = 32;
+
+    private static final int OUTPUTS = 10;
+
+    private static final double LEARNING_RATE = 0.05;
+
+    private final Random mRandom = new Random(1);
+
+    private Layer[] mLayers;
+
+    private DenseNetwork mNetwork;
+
+    private double[][] mInputs;
+
+    private double[][] mExpectedOutputs;
+
+    @Before
+    public void setUp() {
+        InputLayer inputLayer = new InputLayer("input_layer", INPUTS, 1);
+        HiddenLayer hiddenLayer = new HiddenLayer("hidden_layer", HIDDEN, INPUTS);
+        OutputLayer outputLayer = new OutputLayer("output_layer", OUTPUTS, HIDDEN);
+        hiddenLayer.setNextLayer(outputLayer);
+        mLayers = new Layer[]{inputLayer, hiddenLayer, outputLayer};
+
+        mNetwork = new DenseNetwork(Precision.DOUBLE, INPUTS, HIDDEN, OUTPUTS);
+
+        for (int l = 1; l < mLayers.length; l++) {
+            DenseLayer denseLayer = mNetwork.getLayer(l - 1);
+            List<Neuron> neurons = mLayers[l].getNeurons();
+
+            for (int j = 0; j < neurons.size(); j++) {
+                double[] weights = new double[denseLayer.getInputsCount()];
+
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = mRandom.nextDouble() - 0.5;
+                    denseLayer.setWeight(j * weights.length + i, weights[i]);
+                }
+
+                neurons.get(j).setWeights(weights);
+            }
+        }
+
+        mInputs = new double[20][INPUTS];
+        mExpectedOutputs = new double[20][OUTPUTS];
+
+        for (int p = 0; p < mInputs.length; p++) {
+            for (int i = 0; i < INPUTS; i++) {
+                mInputs[p][i] = mRandom.nextBoolean() ? 1 : -1;
+            }
+
+            Arrays.fill(mExpectedOutputs[p], -1);
+            mExpectedOutputs[p][p % OUTPUTS] = 1;
+        }
+    }
+
+    @Test
+    public void evaluateGivesTheSameOutputs() {
+        for (double[] input : mInputs) {
+            assertArrayEquals(forwardLegacy(input), mNetwork.forward(input), 0);
+        }
+    }
+
+    @Test
+    public void trainingGivesTheSameWeights() throws IOException {
+        for (int epoch = 0; epoch < 5; epoch++) {
+            for (int p = 0; p < mInputs.length; p++) {
+                forwardLegacy(mInputs[p]);
+                trainLegacy(mExpectedOutputs[p]);
+                double legacyError = ((OutputLayer) mLayers[2]).getMeanSquaredError();
+
+                mNetwork.forward(mInputs[p]);
+                mNetwork.computeErrors(mExpectedOutputs[p]);
+                mNetwork.adjustWeights(mInputs[p], LEARNING_RATE);
+
+                assertEquals(legacyError, mNetwork.getLoss(mExpectedOutputs[p]), 0);
+            }
+        }
+
+        for (int l = 1; l < mLayers.length; l++) {
+            assertArrayEquals("Layer " + l, legacyWeights(mLayers[l]), denseWeights(mNetwork.getLayer(l - 1)), 0);
+        }
+
+        for (double[] input : mInputs) {
+            assertArrayEquals(forwardLegacy(input), mNetwork.forward(input), 0);
+        }
+    }
+
+    /**
+     * Feeds an input forward through the original layers, like the original multilayer perceptron.
+     *
+     * @param input The input.
+     * @return The outputs of the output layer.
+     */
+    private double[] forwardLegacy(double[] input) {
+        List<Neuron> inputNeurons = mLayers[0].getNeurons();
+
+        for (int i = 0; i < inputNeurons.size(); i++) {
+            inputNeurons.get(i).setInputTerminalValue(0, input[i]);
+            inputNeurons.get(i).calculateOutput();
+        }
+
+        for (int l = 1; l < mLayers.length; l++) {
+            List<Neuron> previousNeurons = mLayers[l - 1].getNeurons();
+
+            for (Neuron neuron : mLayers[l].getNeurons()) {
+                for (int i = 0; i < previousNeurons.size(); i++) {
+                    neuron.setInputTerminalValue(i, previousNeurons.get(i).getOutput());
+                }
+
+                neuron.calculateOutput();
+            }
+        }
+
+        return ((OutputLayer) mLayers[2]).getOutput();
+    }
+
+    /**
+     * Computes the errors of the original layers and adjusts their weights, from the output layer
+     * back to the first hidden layer.
+     *
+     * @param expectedOutput The expected outputs of the last input fed forward.
+     */
+    private void trainLegacy(double[] expectedOutput) {
+        List<Neuron> outputNeurons = mLayers[2].getNeurons();
+
+        for (int j = 0; j < outputNeurons.size(); j++) {
+            outputNeurons.get(j).setExpectedOutput(expectedOutput[j]);
+        }
+
+        for (int l = mLayers.length - 1; l > 0; l--) {
+            for (Neuron neuron : mLayers[l].getNeurons()) {
+                neuron.computeError();
+            }
+        }
+
+        for (int l = mLayers.length - 1; l > 0; l--) {
+            for (Neuron neuron : mLayers[l].getNeurons()) {
+                neuron.adjustWeights(LEARNING_RATE);
+            }
+        }
+    }
+
+    private static double[] legacyWeights(Layer layer) {
+        List<Neuron> neurons = layer.getNeurons();
+        int inputsCount = neurons.get(0).getWeights().length;
+        double[] weights = new double[neurons.size() * inputsCount];
+
+        for (int j = 0; j < neurons.size(); j++) {
+            System.arraycopy(neurons.get(j).getWeights(), 0, weights, j * inputsCount, inputsCount);
+        }
+
+        return weights;
+    }
+
+    private static double[] denseWeights(DenseLayer layer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        layer.writeWeights(Channels.newChannel(bytes));
+
+        double[] weights = new double[layer.getWeightsCount()];
+        ByteBuffer.wrap(bytes.toByteArray()).asDoubleBuffer().get(weights);
+        return weights;
+    }
+}
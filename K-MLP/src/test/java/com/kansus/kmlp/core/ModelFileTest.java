@@ -0,0 +1,163 @@
+package com.kansus.kmlp.core;
+
+import com.kansus.kmlp.activation.ActivationFunction;
+import com.kansus.kmlp.activation.ActivationFunctions;
+import com.kansus.kmlp.initialization.WeightInitializer;
+import com.kansus.kmlp.initialization.WeightInitializers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that model files are read back exactly, that the weights files written before the model
+ * files existed can still be loaded, and that a corrupted or hostile header is reported with an
+ * {@link IOException} before anything is allocated from it.
+ */
+public class ModelFileTest {
+
+    /**
+     * Position of the amount of neurons of the first layer: magic, version, data type and amount
+     * of layers.
+     */
+    private static final int LAYER_SIZES_POSITION = 2 * Integer.BYTES + 1 + Integer.BYTES;
+
+    private DenseNetwork mNetwork;
+
+    private File mFile;
+
+    @Before
+    public void setUp() throws IOException {
+        mNetwork = new DenseNetwork(Precision.DOUBLE,
+                new ActivationFunction[]{ActivationFunctions.DEFAULT, ActivationFunctions.DEFAULT},
+                new WeightInitializer[]{WeightInitializers.XAVIER, WeightInitializers.XAVIER}, 8, 5, 3);
+        mNetwork.resetWeights(new Random(1));
+
+        mFile = File.createTempFile("model", ".mlp");
+        mFile.deleteOnExit();
+        ModelFile.write(mNetwork, mFile);
+    }
+
+    @Test
+    public void readGivesTheSameNetwork() throws IOException {
+        DenseNetwork network = ModelFile.read(mFile);
+        double[] input = {1, -1, 0.5, 0, 0.25, -0.75, 1, 0};
+
+        assertArrayEquals(mNetwork.getLayerSizes(), network.getLayerSizes());
+        assertArrayEquals(mNetwork.forward(input).clone(), network.forward(input), 0);
+    }
+
+    @Test
+    public void fileWithoutHeaderIsReadWithLegacyTopology() throws IOException {
+        DenseNetwork legacyNetwork = new DenseNetwork(Precision.DOUBLE,
+                new ActivationFunction[]{ActivationFunctions.DEFAULT, ActivationFunctions.DEFAULT},
+                new WeightInitializer[]{WeightInitializers.LEGACY, WeightInitializers.LEGACY}, 8, 5, 3);
+        legacyNetwork.resetWeights(new Random(2));
+        writeWithoutHeader(legacyNetwork);
+
+        MultilayerPerceptron network = MultilayerPerceptron.loadFromFile(mFile, new int[]{8, 5, 3});
+        double[] input = {1, -1, 0.5, 0, 0.25, -0.75, 1, 0};
+
+        assertArrayEquals(legacyNetwork.forward(input).clone(), network.evaluate(input), 0);
+    }
+
+    @Test
+    public void fileWithoutHeaderOfAnotherTopologyIsRejected() throws IOException {
+        DenseNetwork legacyNetwork = new DenseNetwork(Precision.DOUBLE,
+                new ActivationFunction[]{ActivationFunctions.DEFAULT, ActivationFunctions.DEFAULT},
+                new WeightInitializer[]{WeightInitializers.LEGACY, WeightInitializers.LEGACY}, 8, 5, 3);
+        writeWithoutHeader(legacyNetwork);
+
+        try {
+            MultilayerPerceptron.loadFromFile(mFile, new int[]{8, 6, 3});
+            fail("The weights file was accepted.");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(mFile.toString()));
+        }
+
+        assertRejected();
+    }
+
+    @Test
+    public void hugeLayersAreRejectedBeforeAllocation() throws IOException {
+        byte[] bytes = Files.readAllBytes(mFile.toPath());
+        ByteBuffer.wrap(bytes).putInt(LAYER_SIZES_POSITION, 100000).putInt(LAYER_SIZES_POSITION + 4, 100000);
+        Files.write(mFile.toPath(), bytes);
+
+        assertRejected();
+    }
+
+    @Test
+    public void softmaxInHiddenLayerIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(mFile.toPath());
+        int activationsPosition = LAYER_SIZES_POSITION + 3 * Integer.BYTES;
+        bytes[activationsPosition] = (byte) ActivationFunctions.getId(ActivationFunctions.SOFTMAX);
+        updateChecksum(bytes);
+        Files.write(mFile.toPath(), bytes);
+
+        assertRejected();
+    }
+
+    @Test
+    public void corruptedHeaderIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(mFile.toPath());
+        int initializersPosition = LAYER_SIZES_POSITION + 3 * Integer.BYTES + 2;
+        bytes[initializersPosition + 1] = (byte) WeightInitializers.getId(WeightInitializers.HE);
+        Files.write(mFile.toPath(), bytes);
+
+        assertRejected();
+    }
+
+    @Test
+    public void corruptedWeightsAreRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(mFile.toPath());
+        bytes[bytes.length - 3] ^= 1;
+        Files.write(mFile.toPath(), bytes);
+
+        assertRejected();
+    }
+
+    /**
+     * Writes only the weights block of a network, like the weights files written before the model
+     * files existed.
+     */
+    private void writeWithoutHeader(DenseNetwork network) throws IOException {
+        try (FileChannel channel = FileChannel.open(mFile.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < network.getLayersCount(); i++) {
+                network.getLayer(i).writeWeights(channel);
+            }
+        }
+    }
+
+    /**
+     * Recalculates the checksum of a modified model file, like a hostile file would have.
+     */
+    private static void updateChecksum(byte[] bytes) {
+        int checksumPosition = LAYER_SIZES_POSITION + 3 * Integer.BYTES + 2 + 2 + Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, checksumPosition);
+        crc.update(bytes, checksumPosition + Integer.BYTES, bytes.length - checksumPosition - Integer.BYTES);
+        ByteBuffer.wrap(bytes).putInt(checksumPosition, (int) crc.getValue());
+    }
+
+    private void assertRejected() {
+        try {
+            ModelFile.read(mFile);
+            fail("The model file was accepted.");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(mFile.toString()));
+        }
+    }
+}
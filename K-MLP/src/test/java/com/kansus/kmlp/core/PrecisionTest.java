@@ -0,0 +1,138 @@
+package com.kansus.kmlp.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that training with float32 weights gives a network as accurate as training with float64
+ * weights, from the same seed. The patterns are noisy copies of one random two-level prototype per
+ * class, like the binarized kana samples, and the accuracy is measured on other noisy copies.
+ */
+public class PrecisionTest {
+
+    private static final int INPUTS = 32;
+
+    private static final int HIDDEN = 24;
+
+    private static final int CLASSES = 10;
+
+    private static final int PATTERNS_COUNT = 200;
+
+    private static final int EPOCHS = 200;
+
+    private static final double MAXIMUM_OUTPUT_DIFFERENCE = 1e-3;
+
+    private static final double MAXIMUM_ACCURACY_DIFFERENCE = 0.01;
+
+    private double[][] mTrainingInputs;
+
+    private int[] mTrainingClasses;
+
+    private double[][] mTestInputs;
+
+    private int[] mTestClasses;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(3);
+        double[][] prototypes = new double[CLASSES][INPUTS];
+
+        for (double[] prototype : prototypes) {
+            for (int i = 0; i < INPUTS; i++) {
+                prototype[i] = random.nextBoolean() ? 1 : -1;
+            }
+        }
+
+        mTrainingInputs = new double[PATTERNS_COUNT][];
+        mTrainingClasses = new int[PATTERNS_COUNT];
+        mTestInputs = new double[PATTERNS_COUNT][];
+        mTestClasses = new int[PATTERNS_COUNT];
+
+        for (int p = 0; p < PATTERNS_COUNT; p++) {
+            mTrainingClasses[p] = p % CLASSES;
+            mTrainingInputs[p] = addNoise(prototypes[mTrainingClasses[p]], random);
+            mTestClasses[p] = p % CLASSES;
+            mTestInputs[p] = addNoise(prototypes[mTestClasses[p]], random);
+        }
+    }
+
+    @Test
+    public void floatTrainingMatchesDoubleTraining() {
+        MultilayerPerceptron doubleNetwork = train(Precision.DOUBLE);
+        MultilayerPerceptron floatNetwork = train(Precision.FLOAT);
+
+        double maximumDifference = 0;
+        int doubleHits = 0;
+        int floatHits = 0;
+
+        for (int p = 0; p < PATTERNS_COUNT; p++) {
+            double[] doubleOutput = doubleNetwork.evaluate(mTestInputs[p]);
+            double[] floatOutput = floatNetwork.evaluate(mTestInputs[p]);
+
+            for (int j = 0; j < CLASSES; j++) {
+                maximumDifference = Math.max(maximumDifference, Math.abs(doubleOutput[j] - floatOutput[j]));
+            }
+
+            doubleHits += highestOutputIndex(doubleOutput) == mTestClasses[p] ? 1 : 0;
+            floatHits += highestOutputIndex(floatOutput) == mTestClasses[p] ? 1 : 0;
+        }
+
+        double doubleAccuracy = (double) doubleHits / PATTERNS_COUNT;
+        double floatAccuracy = (double) floatHits / PATTERNS_COUNT;
+
+        assertTrue("Maximum output difference " + maximumDifference, maximumDifference < MAXIMUM_OUTPUT_DIFFERENCE);
+        assertTrue("Double accuracy " + doubleAccuracy, doubleAccuracy > 0.9);
+        assertEquals("Float accuracy", doubleAccuracy, floatAccuracy, MAXIMUM_ACCURACY_DIFFERENCE);
+    }
+
+    private MultilayerPerceptron train(Precision precision) {
+        MultilayerPerceptron network = new MultilayerPerceptron(INPUTS, HIDDEN, CLASSES, precision);
+        network.setSeed(5);
+        network.setLearningRate(0.1);
+        network.setMinimumError(0);
+        network.setMaxEpochs(EPOCHS);
+
+        for (int p = 0; p < PATTERNS_COUNT; p++) {
+            double[] expectedOutput = new double[CLASSES];
+            Arrays.fill(expectedOutput, -1);
+            expectedOutput[mTrainingClasses[p]] = 1;
+            network.addPattern("", mTrainingInputs[p], expectedOutput);
+        }
+
+        network.train();
+        return network;
+    }
+
+    /**
+     * Returns a copy of a two-level prototype with 15% of its values flipped.
+     */
+    private static double[] addNoise(double[] prototype, Random random) {
+        double[] input = prototype.clone();
+
+        for (int i = 0; i < input.length; i++) {
+            if (random.nextDouble() < 0.15) {
+                input[i] = -input[i];
+            }
+        }
+
+        return input;
+    }
+
+    private static int highestOutputIndex(double[] output) {
+        int highest = 0;
+
+        for (int j = 1; j < output.length; j++) {
+            if (output[j] > output[highest]) {
+                highest = j;
+            }
+        }
+
+        return highest;
+    }
+}
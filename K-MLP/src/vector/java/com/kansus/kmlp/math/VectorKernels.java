@@ -0,0 +1,160 @@
+package com.kansus.kmlp.math;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels that process as many elements at a time as the widest SIMD registers of the processor
+ * hold, using the JDK Vector API. The dot products keep one partial sum per lane and add the lanes
+ * at the end, so their results may differ from the scalar kernels in the last bits. The weight
+ * updates multiply and add every element like the scalar kernels, so their results are the same.
+ * <p>
+ * This class needs Java 16 or later and the module jdk.incubator.vector, and is loaded by
+ * {@link KernelsLoader} only when both are available.
+ */
+final class VectorKernels implements Kernels {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+    /**
+     * The floats that fill the lanes of {@link #DOUBLES} once converted to doubles.
+     */
+    private static final VectorSpecies<Float> HALF_FLOATS =
+            VectorSpecies.of(float.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    VectorKernels() {
+        if (DOUBLES.length() < 2) {
+            throw new UnsupportedOperationException("The processor has no SIMD registers for doubles.");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "vector";
+    }
+
+    @Override
+    public double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        DoubleVector sums = DoubleVector.zero(DOUBLES);
+        int upperBound = DOUBLES.loopBound(length);
+        int i = 0;
+
+        for (; i < upperBound; i += DOUBLES.length()) {
+            DoubleVector va = DoubleVector.fromArray(DOUBLES, a, aOffset + i);
+            DoubleVector vb = DoubleVector.fromArray(DOUBLES, b, bOffset + i);
+            sums = va.fma(vb, sums);
+        }
+
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+
+        for (; i < length; i++) {
+            sum += (a[aOffset + i] * b[bOffset + i]);
+        }
+
+        return sum;
+    }
+
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector sums = FloatVector.zero(FLOATS);
+        int upperBound = FLOATS.loopBound(length);
+        int i = 0;
+
+        for (; i < upperBound; i += FLOATS.length()) {
+            FloatVector va = FloatVector.fromArray(FLOATS, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(FLOATS, b, bOffset + i);
+            sums = va.fma(vb, sums);
+        }
+
+        float sum = sums.reduceLanes(VectorOperators.ADD);
+
+        for (; i < length; i++) {
+            sum += (a[aOffset + i] * b[bOffset + i]);
+        }
+
+        return sum;
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        int upperBound = DOUBLES.loopBound(length);
+        int i = 0;
+
+        for (; i < upperBound; i += DOUBLES.length()) {
+            DoubleVector vx = DoubleVector.fromArray(DOUBLES, x, xOffset + i);
+            DoubleVector vy = DoubleVector.fromArray(DOUBLES, y, yOffset + i);
+            vx.mul(alpha).add(vy).intoArray(y, yOffset + i);
+        }
+
+        for (; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        int upperBound = FLOATS.loopBound(length);
+        int i = 0;
+
+        for (; i < upperBound; i += FLOATS.length()) {
+            FloatVector vx = FloatVector.fromArray(FLOATS, x, xOffset + i);
+            FloatVector vy = FloatVector.fromArray(FLOATS, y, yOffset + i);
+            vx.mul(alpha).add(vy).intoArray(y, yOffset + i);
+        }
+
+        for (; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public void axpy(double alpha, float[] x, int xOffset, double[] y, int yOffset, int length) {
+        int upperBound = DOUBLES.loopBound(length);
+        int i = 0;
+
+        for (; i < upperBound; i += DOUBLES.length()) {
+            DoubleVector vx = (DoubleVector) FloatVector.fromArray(HALF_FLOATS, x, xOffset + i)
+                    .convertShape(VectorOperators.F2D, DOUBLES, 0);
+            DoubleVector vy = DoubleVector.fromArray(DOUBLES, y, yOffset + i);
+            vx.mul(alpha).add(vy).intoArray(y, yOffset + i);
+        }
+
+        for (; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public double cosineSimilarity(double[] a, double[] b) {
+        DoubleVector dotProducts = DoubleVector.zero(DOUBLES);
+        DoubleVector normsA = DoubleVector.zero(DOUBLES);
+        DoubleVector normsB = DoubleVector.zero(DOUBLES);
+        int upperBound = DOUBLES.loopBound(a.length);
+        int i = 0;
+
+        for (; i < upperBound; i += DOUBLES.length()) {
+            DoubleVector va = DoubleVector.fromArray(DOUBLES, a, i);
+            DoubleVector vb = DoubleVector.fromArray(DOUBLES, b, i);
+            dotProducts = va.fma(vb, dotProducts);
+            normsA = va.fma(va, normsA);
+            normsB = vb.fma(vb, normsB);
+        }
+
+        double dotProduct = dotProducts.reduceLanes(VectorOperators.ADD);
+        double normA = normsA.reduceLanes(VectorOperators.ADD);
+        double normB = normsB.reduceLanes(VectorOperators.ADD);
+
+        for (; i < a.length; i++) {
+            dotProduct += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+}
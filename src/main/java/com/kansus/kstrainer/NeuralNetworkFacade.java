@@ -1,7 +1,9 @@
 package com.kansus.kstrainer;
 
+import com.kansus.kmlp.core.AsyncTrainingListener;
 import com.kansus.kmlp.core.MultilayerPerceptron;
 import com.kansus.kmlp.core.NetworkTrainingListener;
+import com.kansus.kmlp.model.BinaryInput;
 import com.kansus.kstrainer.core.Test;
 import com.kansus.kstrainer.core.Workspace;
 import com.kansus.kstrainer.logging.Log;
@@ -19,7 +21,6 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -32,11 +33,14 @@ public class NeuralNetworkFacade implements NetworkTrainingListener {
 
     /**
      * Trains the strokes neural network based on the training configuration
-     * provided.
+     * provided, or resumes its training from the checkpoint file of the
+     * configuration.
      *
      * @param neuralNetworkConfig The training configuration.
+     * @param resume              Whether to resume the training from the
+     *                            checkpoint file.
      */
-    public void trainStrokesNetwork(NeuralNetworkConfig neuralNetworkConfig) {
+    public void trainStrokesNetwork(NeuralNetworkConfig neuralNetworkConfig, boolean resume) {
         Log.writeln("<INFO>    Starting strokes network training.");
 
         long startTime = System.currentTimeMillis();
@@ -49,17 +53,25 @@ public class NeuralNetworkFacade implements NetworkTrainingListener {
             ArrayList<StrokePattern> strokePatterns = FileUtils.loadStrokePatterns(neuralNetworkConfig.getInputs().get(i));
 
             for (StrokePattern strokePattern : strokePatterns) {
-                double[] expectedOutput = new double[38];
-                Arrays.fill(expectedOutput, -1);
-                expectedOutput[strokePattern.getId()] = 1;
+                double[] expectedOutput = Utils.createExpectedOutput(strokesNeuralNetwork, 38, strokePattern.getId());
 
                 double[] normalization = PreNetworkUtils.normalizeStrokes(strokePattern.getPattern(), negativeNorm);
-                strokesNeuralNetwork.addPattern("", normalization, expectedOutput);
+                strokesNeuralNetwork.addPattern("", BinaryInput.pack(normalization), expectedOutput);
                 Log.writeln("<INFO>    Pattern [" + strokePattern.getPattern() + "] added to the neural network");
             }
         }
 
-        strokesNeuralNetwork.train(this);
+        try (AsyncTrainingListener listener = new AsyncTrainingListener(this)) {
+            if (resume) {
+                strokesNeuralNetwork.resume(neuralNetworkConfig.getCheckpointFile(), listener);
+            } else {
+                strokesNeuralNetwork.train(listener);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            Log.writeln("<ERROR>   " + e.getMessage());
+            return;
+        }
 
         saveWeightsFile(strokesNeuralNetwork, neuralNetworkConfig.getWeightsFile());
 
@@ -74,12 +86,15 @@ public class NeuralNetworkFacade implements NetworkTrainingListener {
      *
      * @param weightsFile The weights file.
      * @param charImage   The image with the pixels to be evaluated.
-     * @return The array of outputs of the neural network.
+     * @return The array of outputs of the neural network, or null if the
+     * weights file could not be loaded.
      */
     public double[] evaluate(File weightsFile, BufferedImage charImage, boolean convolveImage,
                              boolean negativeNormalization) {
-        MultilayerPerceptron pixelsNeuralNetwork = new MultilayerPerceptron(1024, 512, 92);
-        pixelsNeuralNetwork.loadWeightsFromFile(weightsFile);
+        MultilayerPerceptron pixelsNeuralNetwork = loadNetwork(weightsFile, new int[]{1024, 512, 92});
+        if (pixelsNeuralNetwork == null) {
+            return null;
+        }
 
         double[] input = PreNetworkUtils.normalizePixels(charImage, convolveImage, negativeNormalization);
         Utils.savePixelsNormalizationToFile(input, new File("E:\\"), "evaluation");
@@ -157,12 +172,14 @@ public class NeuralNetworkFacade implements NetworkTrainingListener {
      *
      * @param weightsFile The weights file.
      * @param strokes     A list of strokes to be evaluated.
-     * @return The array of outputs of the neural network.
+     * @return The array of outputs of the neural network, or null if the
+     * weights file could not be loaded.
      */
     public double[] evaluate(File weightsFile, List<String> strokes) {
-        System.out.print("Exists: " + weightsFile.exists());
-        MultilayerPerceptron strokesNeuralNetwork = new MultilayerPerceptron(32, 64, 37);
-        strokesNeuralNetwork.loadWeightsFromFile(weightsFile);
+        MultilayerPerceptron strokesNeuralNetwork = loadNetwork(weightsFile, new int[]{32, 64, 37});
+        if (strokesNeuralNetwork == null) {
+            return null;
+        }
 
         double[] input = PreNetworkUtils.normalizeStrokes(strokes, false);
         double[] output = strokesNeuralNetwork.evaluate(input);
@@ -180,6 +197,27 @@ public class NeuralNetworkFacade implements NetworkTrainingListener {
         return output;
     }
 
+    /**
+     * Creates the neural network described by the given weights file. The
+     * weights files saved before they had the topology of the network are
+     * loaded into a network with the given topology.
+     *
+     * @param weightsFile      The weights file.
+     * @param legacyLayerSizes The topology of the network of a weights file
+     *                         without topology.
+     * @return The neural network, or null if the file could not be loaded.
+     */
+    private MultilayerPerceptron loadNetwork(File weightsFile, int[] legacyLayerSizes) {
+        try {
+            MultilayerPerceptron network = MultilayerPerceptron.loadFromFile(weightsFile, legacyLayerSizes);
+            Log.writeln("<INFO>    Weights file \"" + weightsFile.getPath() + "\" loaded.");
+            return network;
+        } catch (IOException e) {
+            Log.writeln("<ERROR>   " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Loads the weights in the file to the neural network.
      *
@@ -222,9 +260,27 @@ public class NeuralNetworkFacade implements NetworkTrainingListener {
     }
 
     @Override
-    public void onTrainingProgressChanged(int epochs, double error) {
+    public void onTrainingProgressChanged(int epochs, double error, double learningRate) {
         Log.writeln("<INFO>    Strokes network training - " + "Current epoch: " + epochs + " | Current error: "
-                + error);
+                + error + " | Learning rate: " + learningRate);
+    }
+
+    @Override
+    public void onValidationCompleted(int epochs, double error, double bestError) {
+        Log.writeln("<INFO>    Strokes network validation - " + "Current epoch: " + epochs + " | Validation error: "
+                + error + " | Best validation error: " + bestError);
+    }
+
+    @Override
+    public void onCheckpointSaved(int epochs, File file) {
+        Log.writeln("<INFO>    Strokes network checkpoint - " + "Current epoch: " + epochs + " | File: "
+                + file.getPath());
+    }
+
+    @Override
+    public void onCheckpointFailed(int epochs, File file, IOException exception) {
+        Log.writeln("<ERROR>   Strokes network checkpoint - " + "Current epoch: " + epochs + " | File: "
+                + file.getPath() + " could not be saved: " + exception.getMessage());
     }
 
     @Override
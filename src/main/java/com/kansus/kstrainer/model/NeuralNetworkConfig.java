@@ -1,5 +1,15 @@
 package com.kansus.kstrainer.model;
 
+import com.kansus.kmlp.activation.ActivationFunction;
+import com.kansus.kmlp.activation.ActivationFunctions;
+import com.kansus.kmlp.core.Precision;
+import com.kansus.kmlp.initialization.WeightInitializer;
+import com.kansus.kmlp.initialization.WeightInitializers;
+import com.kansus.kmlp.optimizer.GradientDescentOptimizer;
+import com.kansus.kmlp.optimizer.Optimizer;
+import com.kansus.kmlp.schedule.ConstantSchedule;
+import com.kansus.kmlp.schedule.LearningRateSchedule;
+
 import java.io.File;
 import java.util.ArrayList;
 
@@ -16,7 +26,7 @@ public class NeuralNetworkConfig {
 
 	private int inputNeuronsCount;
 
-	private int hiddenNeuronsCount;
+	private int[] hiddenLayerSizes;
 
 	private int outputNeuronsCount;
 
@@ -25,6 +35,40 @@ public class NeuralNetworkConfig {
 	private double minimumError = 0.01;
 
 	private int maxEpochs = 50000;
+
+	private int batchSize = 1;
+
+	private int threadsCount = 1;
+
+	private long seed = 0;
+
+	private boolean shufflePatterns = true;
+
+	private Precision precision = Precision.DOUBLE;
+
+	private ActivationFunction hiddenActivationFunction = ActivationFunctions.DEFAULT;
+
+	private ActivationFunction outputActivationFunction = ActivationFunctions.DEFAULT;
+
+	private WeightInitializer hiddenWeightInitializer = WeightInitializers.LEGACY;
+
+	private WeightInitializer outputWeightInitializer = WeightInitializers.LEGACY;
+
+	private Optimizer optimizer = new GradientDescentOptimizer();
+
+	private LearningRateSchedule learningRateSchedule = new ConstantSchedule();
+
+	private double validationSplit = 0;
+
+	private int validationInterval = 10;
+
+	private int earlyStoppingPatience = 0;
+
+	private File checkpointFile;
+
+	private int checkpointInterval = 0;
+
+	private int checkpointMinutes = 0;
 	
 	private boolean negativeNormalization = false;
 	
@@ -47,8 +91,8 @@ public class NeuralNetworkConfig {
 		return inputNeuronsCount;
 	}
 
-	public int getHiddenNeuronsCount() {
-		return hiddenNeuronsCount;
+	public int[] getHiddenLayerSizes() {
+		return hiddenLayerSizes;
 	}
 
 	public int getOutputNeuronsCount() {
@@ -67,6 +111,74 @@ public class NeuralNetworkConfig {
 		return maxEpochs;
 	}
 	
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public int getThreadsCount() {
+		return threadsCount;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public boolean isShufflePatterns() {
+		return shufflePatterns;
+	}
+
+	public Precision getPrecision() {
+		return precision;
+	}
+
+	public ActivationFunction getHiddenActivationFunction() {
+		return hiddenActivationFunction;
+	}
+
+	public ActivationFunction getOutputActivationFunction() {
+		return outputActivationFunction;
+	}
+
+	public WeightInitializer getHiddenWeightInitializer() {
+		return hiddenWeightInitializer;
+	}
+
+	public WeightInitializer getOutputWeightInitializer() {
+		return outputWeightInitializer;
+	}
+
+	public Optimizer getOptimizer() {
+		return optimizer;
+	}
+
+	public LearningRateSchedule getLearningRateSchedule() {
+		return learningRateSchedule;
+	}
+
+	public double getValidationSplit() {
+		return validationSplit;
+	}
+
+	public int getValidationInterval() {
+		return validationInterval;
+	}
+
+	public int getEarlyStoppingPatience() {
+		return earlyStoppingPatience;
+	}
+
+	public File getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	public int getCheckpointMinutes() {
+		return checkpointMinutes;
+	}
+
 	public boolean isNegativeNormalization() {
 		return negativeNormalization;
 	}
@@ -91,8 +203,8 @@ public class NeuralNetworkConfig {
 		this.inputNeuronsCount = inputNeuronsCount;
 	}
 
-	public void setHiddenNeuronsCount(int hiddenNeuronsCount) {
-		this.hiddenNeuronsCount = hiddenNeuronsCount;
+	public void setHiddenLayerSizes(int... hiddenLayerSizes) {
+		this.hiddenLayerSizes = hiddenLayerSizes;
 	}
 
 	public void setOutputNeuronsCount(int outputNeuronsCount) {
@@ -111,6 +223,74 @@ public class NeuralNetworkConfig {
 		this.maxEpochs = maxEpochs;
 	}
 	
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public void setThreadsCount(int threadsCount) {
+		this.threadsCount = threadsCount;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public void setShufflePatterns(boolean shufflePatterns) {
+		this.shufflePatterns = shufflePatterns;
+	}
+
+	public void setPrecision(Precision precision) {
+		this.precision = precision;
+	}
+
+	public void setHiddenActivationFunction(ActivationFunction hiddenActivationFunction) {
+		this.hiddenActivationFunction = hiddenActivationFunction;
+	}
+
+	public void setOutputActivationFunction(ActivationFunction outputActivationFunction) {
+		this.outputActivationFunction = outputActivationFunction;
+	}
+
+	public void setHiddenWeightInitializer(WeightInitializer hiddenWeightInitializer) {
+		this.hiddenWeightInitializer = hiddenWeightInitializer;
+	}
+
+	public void setOutputWeightInitializer(WeightInitializer outputWeightInitializer) {
+		this.outputWeightInitializer = outputWeightInitializer;
+	}
+
+	public void setOptimizer(Optimizer optimizer) {
+		this.optimizer = optimizer;
+	}
+
+	public void setLearningRateSchedule(LearningRateSchedule learningRateSchedule) {
+		this.learningRateSchedule = learningRateSchedule;
+	}
+
+	public void setValidationSplit(double validationSplit) {
+		this.validationSplit = validationSplit;
+	}
+
+	public void setValidationInterval(int validationInterval) {
+		this.validationInterval = validationInterval;
+	}
+
+	public void setEarlyStoppingPatience(int earlyStoppingPatience) {
+		this.earlyStoppingPatience = earlyStoppingPatience;
+	}
+
+	public void setCheckpointFile(File checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	public void setCheckpointInterval(int checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	public void setCheckpointMinutes(int checkpointMinutes) {
+		this.checkpointMinutes = checkpointMinutes;
+	}
+
 	public void setNegativeNormalization(boolean negativeNormalization) {
 		this.negativeNormalization = negativeNormalization;
 	}
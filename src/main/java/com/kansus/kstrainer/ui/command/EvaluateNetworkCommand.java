@@ -133,6 +133,9 @@ public class EvaluateNetworkCommand implements Command {
             PreNetworkUtils.lowerValue = -1;
         }
 
+        List<File> samples = new ArrayList<>();
+        List<double[]> inputs = new ArrayList<>();
+
         for (File imageFile : samplesDirImages) {
             String sampleName = FileUtils.getFilenameWithoutExtension(imageFile);
             int characterId = Integer.parseInt(imageFile.getName().split("-")[0]);
@@ -154,13 +157,19 @@ public class EvaluateNetworkCommand implements Command {
                 // Both
                 double[] input = concat(pixelsInput, normalization);*/
 
-                double[] output = pixelsNeuralNetwork.evaluate(pixelsInput);
-                results.add(createEvaluationResultFor(imageFile, project, output));
+                samples.add(imageFile);
+                inputs.add(pixelsInput);
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
 
+        double[][] outputs = pixelsNeuralNetwork.evaluateBatch(inputs.toArray(new double[inputs.size()][]));
+
+        for (int i = 0; i < samples.size(); i++) {
+            results.add(createEvaluationResultFor(samples.get(i), project, outputs[i]));
+        }
+
         return results;
     }
 
@@ -1,7 +1,9 @@
 package com.kansus.kstrainer.ui.command;
 
+import com.kansus.kmlp.core.AsyncTrainingListener;
 import com.kansus.kmlp.core.MultilayerPerceptron;
 import com.kansus.kmlp.core.NetworkTrainingListener;
+import com.kansus.kmlp.model.BinaryInput;
 import com.kansus.kstrainer.NeuralNetworkFacade;
 import com.kansus.kstrainer.core.Workspace;
 import com.kansus.kstrainer.logging.Log;
@@ -22,7 +24,6 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -58,10 +59,17 @@ public class TrainNetworkCommand implements Command, NetworkTrainingListener {
             FileWriter fw = new FileWriter(new File(outputDir, "log.txt"));
             Log.setWriter(new BufferedWriter(fw));
 
+            if (neuralNetworkConfig.getThreadsCount() > 1 && neuralNetworkConfig.getBatchSize() == 1) {
+                Log.writeln("<WARNING> The \"threads\" setting is ignored, since it needs a \"batch_size\" "
+                        + "greater than 1.");
+            }
+
+            boolean resume = args.length == 3;
+
             if (args[1].equals("pixels")) {
-                train(neuralNetworkConfig);
+                train(neuralNetworkConfig, resume);
             } else if (args[1].equals("strokes")) {
-                trainer.trainStrokesNetwork(neuralNetworkConfig);
+                trainer.trainStrokesNetwork(neuralNetworkConfig, resume);
             }
 
             Log.saveFile();
@@ -135,17 +143,14 @@ public class TrainNetworkCommand implements Command, NetworkTrainingListener {
                 Utils.savePixelsNormalizationToFile(pixelsInput3, normalizationSubFolder,
                         folderCharacters[j].getName() + "3");
 
-                double[] expectedOutput = new double[92];
-                Arrays.fill(expectedOutput, -1);
-
                 String sampleName = FileUtils.getFilenameWithoutExtension(charFile);
                 int charId = Integer.parseInt(sampleName.split("-")[0]);
-                expectedOutput[charId - 1] = 1;
+                double[] expectedOutput = Utils.createExpectedOutput(pixelsNeuralNetwork, 92, charId - 1);
 
-                pixelsNeuralNetwork.addPattern("", pixelsInput, expectedOutput);
-                pixelsNeuralNetwork.addPattern("", pixelsInput1, expectedOutput);
-                pixelsNeuralNetwork.addPattern("", pixelsInput2, expectedOutput);
-                pixelsNeuralNetwork.addPattern("", pixelsInput3, expectedOutput);
+                pixelsNeuralNetwork.addPattern("", BinaryInput.pack(pixelsInput), expectedOutput);
+                pixelsNeuralNetwork.addPattern("", BinaryInput.pack(pixelsInput1), expectedOutput);
+                pixelsNeuralNetwork.addPattern("", BinaryInput.pack(pixelsInput2), expectedOutput);
+                pixelsNeuralNetwork.addPattern("", BinaryInput.pack(pixelsInput3), expectedOutput);
                 //pixelsNeuralNetwork.addPattern("", pixelsInputC, expectedOutput);
                 Log.writeln("<INFO>    Pattern " + folderCharacters[j].getName() + " added to the neural network");
             }
@@ -160,7 +165,18 @@ public class TrainNetworkCommand implements Command, NetworkTrainingListener {
         Log.writeln("<INFO>    Command executed in " + totalTime / 1000 + " seconds");
     }
 
-    public void train(NeuralNetworkConfig neuralNetworkConfig) throws IOException {
+    /**
+     * Trains the pixels neural network based on the training configuration
+     * provided, or resumes its training from the checkpoint file of the
+     * configuration.
+     *
+     * @param neuralNetworkConfig The training configuration.
+     * @param resume              Whether to resume the training from the
+     *                            checkpoint file.
+     * @throws IOException When there is something wrong with the input files
+     *                     or the checkpoint file.
+     */
+    public void train(NeuralNetworkConfig neuralNetworkConfig, boolean resume) throws IOException {
         Log.writeln("<INFO>    Starting pixels network training.");
 
         long startTime = System.currentTimeMillis();
@@ -209,16 +225,20 @@ public class TrainNetworkCommand implements Command, NetworkTrainingListener {
                 double[] input = concat(pixelsInput, normalization);*/
 
                 // Expected output
-                double[] expectedOutput = new double[92];
-                Arrays.fill(expectedOutput, -1);
-                expectedOutput[charId - 1] = 1;
+                double[] expectedOutput = Utils.createExpectedOutput(pixelsNeuralNetwork, 92, charId - 1);
 
-                pixelsNeuralNetwork.addPattern(sampleName, pixelsInput, expectedOutput);
+                pixelsNeuralNetwork.addPattern(sampleName, BinaryInput.pack(pixelsInput), expectedOutput);
                 Log.writeln("<INFO>    Sample " + sampleName + " added to the neural network");
             }
         }
 
-        pixelsNeuralNetwork.train(this);
+        try (AsyncTrainingListener listener = new AsyncTrainingListener(this)) {
+            if (resume) {
+                pixelsNeuralNetwork.resume(neuralNetworkConfig.getCheckpointFile(), listener);
+            } else {
+                pixelsNeuralNetwork.train(listener);
+            }
+        }
 
         saveWeightsFile(pixelsNeuralNetwork, neuralNetworkConfig.getWeightsFile());
 
@@ -244,9 +264,27 @@ public class TrainNetworkCommand implements Command, NetworkTrainingListener {
     }
 
     @Override
-    public void onTrainingProgressChanged(int epochs, double error) {
+    public void onTrainingProgressChanged(int epochs, double error, double learningRate) {
         Log.writeln("<INFO>    Pixels network training - " + "Current epoch: " + epochs + " | Current error: "
-                + error);
+                + error + " | Learning rate: " + learningRate);
+    }
+
+    @Override
+    public void onValidationCompleted(int epochs, double error, double bestError) {
+        Log.writeln("<INFO>    Pixels network validation - " + "Current epoch: " + epochs + " | Validation error: "
+                + error + " | Best validation error: " + bestError);
+    }
+
+    @Override
+    public void onCheckpointSaved(int epochs, File file) {
+        Log.writeln("<INFO>    Pixels network checkpoint - " + "Current epoch: " + epochs + " | File: "
+                + file.getPath());
+    }
+
+    @Override
+    public void onCheckpointFailed(int epochs, File file, IOException exception) {
+        Log.writeln("<ERROR>   Pixels network checkpoint - " + "Current epoch: " + epochs + " | File: "
+                + file.getPath() + " could not be saved: " + exception.getMessage());
     }
 
     @Override
@@ -257,9 +295,9 @@ public class TrainNetworkCommand implements Command, NetworkTrainingListener {
 
     @Override
     public boolean validate() {
-        if (args.length != 2) {
+        if (args.length != 2 && !(args.length == 3 && args[2].equals("--resume"))) {
             System.err.println("<ERROR>   Incorrect number of parameters.");
-            System.err.println("<INFO>    Command syntax: train <neural-network> <config-file>");
+            System.err.println("<INFO>    Command syntax: train <neural-network> [--resume]");
             return false;
         }
 
@@ -8,6 +8,16 @@ import java.util.Map;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kansus.kmlp.activation.ActivationFunctions;
+import com.kansus.kmlp.core.Precision;
+import com.kansus.kmlp.initialization.WeightInitializers;
+import com.kansus.kmlp.optimizer.Optimizers;
+import com.kansus.kmlp.schedule.ConstantSchedule;
+import com.kansus.kmlp.schedule.CosineAnnealingSchedule;
+import com.kansus.kmlp.schedule.ExponentialDecaySchedule;
+import com.kansus.kmlp.schedule.LearningRateSchedule;
+import com.kansus.kmlp.schedule.PlateauSchedule;
+import com.kansus.kmlp.schedule.StepDecaySchedule;
 import com.kansus.kstrainer.core.Project;
 import com.kansus.kstrainer.core.Workspace;
 import org.json.simple.JSONArray;
@@ -46,8 +56,7 @@ public class FileUtils {
             neuralNetworkConfig.setWeightsFile(weightsFile);
             int inputNeuronsCount = (int) (long) trainingObject.get("input_neurons_count");
             neuralNetworkConfig.setInputNeuronsCount(inputNeuronsCount);
-            int hiddenNeuronsCount = (int) (long) trainingObject.get("hidden_neurons_count");
-            neuralNetworkConfig.setHiddenNeuronsCount(hiddenNeuronsCount);
+            neuralNetworkConfig.setHiddenLayerSizes(loadHiddenLayerSizes(trainingObject.get("hidden_neurons_count")));
             int outputNeuronsCount = (int) (long) trainingObject.get("output_neurons_count");
             neuralNetworkConfig.setOutputNeuronsCount(outputNeuronsCount);
             double learningRate = (double) trainingObject.get("learning_rate");
@@ -57,6 +66,94 @@ public class FileUtils {
             int maxEpochs = (int) (long) trainingObject.get("max_epochs");
             neuralNetworkConfig.setMaxEpochs(maxEpochs);
 
+            Object batchSizeObj = trainingObject.get("batch_size");
+            if (batchSizeObj != null) {
+                neuralNetworkConfig.setBatchSize((int) (long) batchSizeObj);
+            }
+
+            Object threadsObj = trainingObject.get("threads");
+            if (threadsObj != null) {
+                neuralNetworkConfig.setThreadsCount((int) (long) threadsObj);
+            }
+
+            Object seedObj = trainingObject.get("seed");
+            if (seedObj != null) {
+                neuralNetworkConfig.setSeed((long) seedObj);
+            }
+
+            Object shufflePatternsObj = trainingObject.get("shuffle_patterns");
+            if (shufflePatternsObj != null) {
+                neuralNetworkConfig.setShufflePatterns((boolean) shufflePatternsObj);
+            }
+
+            Object precisionObj = trainingObject.get("precision");
+            if (precisionObj != null) {
+                neuralNetworkConfig.setPrecision(Precision.valueOf(((String) precisionObj).toUpperCase()));
+            }
+
+            Object hiddenActivationObj = trainingObject.get("hidden_activation");
+            if (hiddenActivationObj != null) {
+                neuralNetworkConfig.setHiddenActivationFunction(ActivationFunctions.forName((String) hiddenActivationObj));
+            }
+
+            Object outputActivationObj = trainingObject.get("output_activation");
+            if (outputActivationObj != null) {
+                neuralNetworkConfig.setOutputActivationFunction(ActivationFunctions.forName((String) outputActivationObj));
+            }
+
+            Object hiddenInitializationObj = trainingObject.get("hidden_initialization");
+            if (hiddenInitializationObj != null) {
+                neuralNetworkConfig.setHiddenWeightInitializer(WeightInitializers.forName((String) hiddenInitializationObj));
+            }
+
+            Object outputInitializationObj = trainingObject.get("output_initialization");
+            if (outputInitializationObj != null) {
+                neuralNetworkConfig.setOutputWeightInitializer(WeightInitializers.forName((String) outputInitializationObj));
+            }
+
+            Object optimizerObj = trainingObject.get("optimizer");
+            if (optimizerObj != null) {
+                neuralNetworkConfig.setOptimizer(Optimizers.forName((String) optimizerObj));
+            }
+
+            Object scheduleObj = trainingObject.get("learning_rate_schedule");
+            if (scheduleObj != null) {
+                neuralNetworkConfig.setLearningRateSchedule(
+                        loadLearningRateSchedule((JSONObject) scheduleObj, maxEpochs));
+            }
+
+            Object validationSplitObj = trainingObject.get("validation_split");
+            if (validationSplitObj != null) {
+                neuralNetworkConfig.setValidationSplit(((Number) validationSplitObj).doubleValue());
+            }
+
+            Object validationIntervalObj = trainingObject.get("validation_interval");
+            if (validationIntervalObj != null) {
+                neuralNetworkConfig.setValidationInterval((int) (long) validationIntervalObj);
+            }
+
+            Object patienceObj = trainingObject.get("early_stopping_patience");
+            if (patienceObj != null) {
+                neuralNetworkConfig.setEarlyStoppingPatience((int) (long) patienceObj);
+            }
+
+            Object checkpointFileObj = trainingObject.get("checkpoint_file");
+            if (checkpointFileObj != null) {
+                neuralNetworkConfig.setCheckpointFile(new File(project.getOutputDirectory(), (String) checkpointFileObj));
+            } else {
+                neuralNetworkConfig.setCheckpointFile(new File(weightsFile.getPath() + ".ckpt"));
+            }
+
+            Object checkpointIntervalObj = trainingObject.get("checkpoint_interval");
+            if (checkpointIntervalObj != null) {
+                neuralNetworkConfig.setCheckpointInterval((int) (long) checkpointIntervalObj);
+            }
+
+            Object checkpointMinutesObj = trainingObject.get("checkpoint_minutes");
+            if (checkpointMinutesObj != null) {
+                neuralNetworkConfig.setCheckpointMinutes((int) (long) checkpointMinutesObj);
+            }
+
             Object convolveImageObj = trainingObject.get("convolve_image");
             boolean convolveImage = convolveImageObj != null && (boolean) convolveImageObj;
             neuralNetworkConfig.setConvolveImage(convolveImage);
@@ -84,6 +181,71 @@ public class FileUtils {
         return neuralNetworkConfig;
     }
 
+    /**
+     * Creates the learning rate schedule described by an object of the
+     * training configuration file, like {"type": "step", "step_epochs": 1000,
+     * "factor": 0.5}. The parameters that are not in the object take their
+     * default values.
+     *
+     * @param scheduleObject The object that describes the schedule.
+     * @param maxEpochs      The maximum amount of epochs of the training.
+     * @return The learning rate schedule.
+     */
+    private static LearningRateSchedule loadLearningRateSchedule(JSONObject scheduleObject, int maxEpochs) {
+        String type = (String) scheduleObject.get("type");
+
+        switch (type) {
+            case "constant":
+                return new ConstantSchedule();
+            case "step":
+                return new StepDecaySchedule(
+                        getNumber(scheduleObject, "step_epochs", 1000).intValue(),
+                        getNumber(scheduleObject, "factor", 0.5).doubleValue());
+            case "exponential":
+                return new ExponentialDecaySchedule(getNumber(scheduleObject, "decay_rate", 0.999).doubleValue());
+            case "cosine":
+                return new CosineAnnealingSchedule(
+                        getNumber(scheduleObject, "epochs", maxEpochs).intValue(),
+                        getNumber(scheduleObject, "minimum_learning_rate", 0).doubleValue());
+            case "plateau":
+                return new PlateauSchedule(
+                        getNumber(scheduleObject, "factor", 0.5).doubleValue(),
+                        getNumber(scheduleObject, "patience", 100).intValue(),
+                        getNumber(scheduleObject, "threshold", 0.001).doubleValue(),
+                        getNumber(scheduleObject, "minimum_learning_rate", 0).doubleValue());
+            default:
+                throw new IllegalArgumentException("Unknown learning rate schedule: " + type);
+        }
+    }
+
+    /**
+     * Reads the sizes of the hidden layers of the training configuration
+     * file, which are either a single size, for a network with one hidden
+     * layer, or a list with the size of each hidden layer, like [128, 128].
+     *
+     * @param hiddenLayersObj The value of the hidden layers in the file.
+     * @return The size of each hidden layer, from the first one.
+     */
+    private static int[] loadHiddenLayerSizes(Object hiddenLayersObj) {
+        if (hiddenLayersObj instanceof JSONArray) {
+            JSONArray hiddenLayersArray = (JSONArray) hiddenLayersObj;
+            int[] hiddenLayerSizes = new int[hiddenLayersArray.size()];
+
+            for (int i = 0; i < hiddenLayerSizes.length; i++) {
+                hiddenLayerSizes[i] = (int) (long) hiddenLayersArray.get(i);
+            }
+
+            return hiddenLayerSizes;
+        }
+
+        return new int[]{(int) (long) hiddenLayersObj};
+    }
+
+    private static Number getNumber(JSONObject object, String key, Number defaultValue) {
+        Object value = object.get(key);
+        return value != null ? (Number) value : defaultValue;
+    }
+
     /**
      * Loads a file containing the stroke patterns used to train the neural
      * network.
@@ -1,6 +1,9 @@
 package com.kansus.kstrainer.util;
 
+import com.kansus.kmlp.activation.ActivationFunction;
 import com.kansus.kmlp.core.MultilayerPerceptron;
+import com.kansus.kmlp.initialization.WeightInitializer;
+import com.kansus.kmlp.math.Kernels;
 import com.kansus.kstrainer.model.NeuralNetworkConfig;
 
 import javax.imageio.ImageIO;
@@ -10,6 +13,7 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Class with utility methods.
@@ -44,27 +48,71 @@ public class Utils {
      * @return A new neural network.
      */
     public static MultilayerPerceptron createNetworkFromConfig(NeuralNetworkConfig neuralNetworkConfig) {
-        int inputNeuronsCount = neuralNetworkConfig.getInputNeuronsCount();
-        int hiddenNeuronsCount = neuralNetworkConfig.getHiddenNeuronsCount();
-        int outputNeuronsCount = neuralNetworkConfig.getOutputNeuronsCount();
+        int[] hiddenLayerSizes = neuralNetworkConfig.getHiddenLayerSizes();
+        int layersCount = hiddenLayerSizes.length + 1;
+        int[] layerSizes = new int[layersCount + 1];
+        ActivationFunction[] activationFunctions = new ActivationFunction[layersCount];
+        WeightInitializer[] weightInitializers = new WeightInitializer[layersCount];
+
+        layerSizes[0] = neuralNetworkConfig.getInputNeuronsCount();
+        System.arraycopy(hiddenLayerSizes, 0, layerSizes, 1, hiddenLayerSizes.length);
+        layerSizes[layersCount] = neuralNetworkConfig.getOutputNeuronsCount();
+
+        for (int l = 0; l < layersCount - 1; l++) {
+            activationFunctions[l] = neuralNetworkConfig.getHiddenActivationFunction();
+            weightInitializers[l] = neuralNetworkConfig.getHiddenWeightInitializer();
+        }
+
+        activationFunctions[layersCount - 1] = neuralNetworkConfig.getOutputActivationFunction();
+        weightInitializers[layersCount - 1] = neuralNetworkConfig.getOutputWeightInitializer();
 
         MultilayerPerceptron network = new MultilayerPerceptron(
-                inputNeuronsCount,
-                hiddenNeuronsCount,
-                outputNeuronsCount
+                layerSizes,
+                neuralNetworkConfig.getPrecision(),
+                activationFunctions,
+                weightInitializers
         );
 
         network.setLearningRate(neuralNetworkConfig.getLearningRate());
         network.setMaxEpochs(neuralNetworkConfig.getMaxEpochs());
         network.setMinimumError(neuralNetworkConfig.getMinimumError());
-
-        if (neuralNetworkConfig.getWeightsFile().exists()) {
+        network.setBatchSize(neuralNetworkConfig.getBatchSize());
+        network.setThreadsCount(neuralNetworkConfig.getThreadsCount());
+        network.setSeed(neuralNetworkConfig.getSeed());
+        network.setShufflePatterns(neuralNetworkConfig.isShufflePatterns());
+        network.setOptimizer(neuralNetworkConfig.getOptimizer());
+        network.setLearningRateSchedule(neuralNetworkConfig.getLearningRateSchedule());
+        network.setValidationSplit(neuralNetworkConfig.getValidationSplit());
+        network.setValidationInterval(neuralNetworkConfig.getValidationInterval());
+        network.setEarlyStoppingPatience(neuralNetworkConfig.getEarlyStoppingPatience());
+        network.setCheckpointFile(neuralNetworkConfig.getCheckpointFile());
+        network.setCheckpointInterval(neuralNetworkConfig.getCheckpointInterval());
+        network.setCheckpointMinutes(neuralNetworkConfig.getCheckpointMinutes());
+
+        if (neuralNetworkConfig.getWeightsFile().length() != 0) {
             network.loadWeightsFromFile(neuralNetworkConfig.getWeightsFile());
         }
 
         return network;
     }
 
+    /**
+     * Creates the expected output of a pattern of the given class, with 1 for
+     * the class and the lowest target of the network for the other classes,
+     * which is 0 when the output layer uses the softmax and -1 otherwise.
+     *
+     * @param network      The neural network.
+     * @param outputsCount The amount of outputs of the neural network.
+     * @param index        The index of the output of the class.
+     * @return The expected output.
+     */
+    public static double[] createExpectedOutput(MultilayerPerceptron network, int outputsCount, int index) {
+        double[] expectedOutput = new double[outputsCount];
+        Arrays.fill(expectedOutput, network.hasSoftmaxOutput() ? 0 : -1);
+        expectedOutput[index] = 1;
+        return expectedOutput;
+    }
+
     /**
      * Checks whether the specified text ends with any of the valid values.
      *
@@ -167,17 +215,7 @@ public class Utils {
     }
 
     public static double cosineSimilarity(double[] vectorA, double[] vectorB) {
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-
-        for (int i = 0; i < vectorA.length; i++) {
-            dotProduct += vectorA[i] * vectorB[i];
-            normA += Math.pow(vectorA[i], 2);
-            normB += Math.pow(vectorB[i], 2);
-        }
-
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+        return Kernels.get().cosineSimilarity(vectorA, vectorB);
     }
 
     public static BufferedImage resize(BufferedImage img, int newW, int newH) {